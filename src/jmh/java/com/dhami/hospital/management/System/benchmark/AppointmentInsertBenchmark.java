@@ -0,0 +1,60 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Patient;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+500 appointment inserts per invocation
+- single: flush after every row -> one statement round trip per row
+- batched: flush every hibernate.jdbc.batch_size rows -> jdbc batches
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentInsertBenchmark {
+
+    private static final int ROWS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    // unique (doctor_id, appointment_time) -> every inserted row gets a fresh time
+    private static final AtomicLong SLOT = new AtomicLong();
+    private static final LocalDateTime BASE = LocalDateTime.of(2100, 1, 1, 9, 0);
+
+    @Benchmark
+    public void singleInserts(HospitalState state) {
+        insert(state, 1);
+    }
+
+    @Benchmark
+    public void batchedInserts(HospitalState state) {
+        insert(state, BATCH_SIZE);
+    }
+
+    private void insert(HospitalState state, int flushEvery) {
+        state.transactionTemplate.executeWithoutResult(status -> {
+            Patient patient = state.entityManager.getReference(Patient.class, 1L);
+            Doctor doctor = state.entityManager.getReference(Doctor.class, 1L);
+            for (int i = 0; i < ROWS; i++) {
+                state.entityManager.persist(Appointment.builder()
+                        .appointmentTime(BASE.plusMinutes(SLOT.incrementAndGet()))
+                        .reason("Benchmark")
+                        .patient(patient)
+                        .doctor(doctor)
+                        .build());
+                if ((i + 1) % flushEvery == 0) {
+                    state.entityManager.flush();
+                }
+            }
+            state.entityManager.flush();
+            state.entityManager.clear();
+        });
+    }
+}
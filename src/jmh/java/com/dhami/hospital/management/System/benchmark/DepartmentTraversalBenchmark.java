@@ -0,0 +1,30 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.entity.Department;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.repository.DepartmentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Department.doctors (my_dpt_doctors ManyToMany) walk, served from the second level cache after the first round
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DepartmentTraversalBenchmark {
+
+    @Benchmark
+    public void departmentDoctors(HospitalState state, Blackhole blackhole) {
+        DepartmentRepository repository = state.bean(DepartmentRepository.class);
+        state.transactionTemplate.executeWithoutResult(status -> {
+            for (Department department : repository.findAllByOrderByNameAsc()) {
+                for (Doctor doctor : department.getDoctors()) {
+                    blackhole.consume(doctor.getName());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.dto.DonorMatch;
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.service.DonorIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+compatible donor lookup in DonorIndex at 2M patients (no spring context, no database)
+blood groups roughly as in the population (O+ 37%, A+ 30%, B+ 9%, O- 7%, A- 6%, AB+ 6%, B- 2%, AB- 1%),
+birth dates spread over 1930 - 2025
+ages: "" = no age filter, "18-65" = usual donor age range, "30-30" = a single age (day buckets at both ends)
+sample time -> look at p0.99 in the result
+run: ./mvnw -Pjmh -DskipTests test -Djmh.args="DonorMatchingBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class DonorMatchingBenchmark {
+
+    private static final int PATIENTS = 2_000_000;
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+    private static final BloodGroup[] GROUPS = BloodGroup.values();
+    // per mille, in BloodGroup order: O-, O+, A-, A+, B-, B+, AB-, AB+
+    private static final int[] SHARE = {70, 370, 60, 300, 20, 90, 10, 80};
+
+    @Param({"O_NEGATIVE", "A_POSITIVE", "AB_POSITIVE"})
+    public BloodGroup recipient;
+
+    @Param({"", "18-65", "30-30"})
+    public String ages;
+
+    private DonorIndex index;
+    private LocalDate bornFrom;
+    private LocalDate bornTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int days = (int) (LocalDate.of(2025, 12, 31).toEpochDay() - LocalDate.of(1930, 1, 1).toEpochDay());
+        List<DonorProfile> profiles = new ArrayList<>(PATIENTS);
+        for (long id = 1; id <= PATIENTS; id++) {
+            profiles.add(new DonorProfile(id, bloodGroup(random.nextInt(1000)),
+                    LocalDate.of(1930, 1, 1).plusDays(random.nextInt(days))));
+        }
+        index = new DonorIndex();
+        index.replaceAll(profiles);
+
+        if (!ages.isEmpty()) {
+            String[] range = ages.split("-");
+            // same mapping as DonorMatchingService
+            bornFrom = TODAY.minusYears(Integer.parseInt(range[1]) + 1L).plusDays(1);
+            bornTo = TODAY.minusYears(Integer.parseInt(range[0]));
+        }
+    }
+
+    @Benchmark
+    public DonorMatch match() {
+        return index.match(recipient, bornFrom, bornTo, 20);
+    }
+
+    private static BloodGroup bloodGroup(int perMille) {
+        for (int i = 0; i < SHARE.length; i++) {
+            perMille -= SHARE[i];
+            if (perMille < 0) {
+                return GROUPS[i];
+            }
+        }
+        return GROUPS[GROUPS.length - 1];
+    }
+}
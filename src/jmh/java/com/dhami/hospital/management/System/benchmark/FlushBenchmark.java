@@ -0,0 +1,69 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+one transaction with 1000 patients + 5000 appointments managed, what the flush at commit costs
+- loadOnly: rolled back -> no flush, the baseline
+- flushUnchanged: commit, nothing modified -> pure dirty checking
+- flushTenChanged: commit after 10 patients got a new blood group
+flush time = flush* - loadOnly
+- loadInsurances: 1000 insurances, their patients are never read (inverse one-to-one: loaded anyway without enhancement)
+allocation per transaction: add the gc profiler, gc.alloc.rate.norm is bytes per invocation
+./mvnw -Pjmh -DskipTests test -Djmh.args="FlushBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushBenchmark {
+
+    private static final int CHANGED = 10;
+
+    @Benchmark
+    public void loadOnly(HospitalState state, Blackhole blackhole) {
+        state.transactionTemplate.executeWithoutResult(status -> {
+            blackhole.consume(loadAll(state));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Benchmark
+    public void flushUnchanged(HospitalState state, Blackhole blackhole) {
+        state.transactionTemplate.executeWithoutResult(status -> blackhole.consume(loadAll(state)));
+    }
+
+    @Benchmark
+    public void flushTenChanged(HospitalState state, Blackhole blackhole) {
+        state.transactionTemplate.executeWithoutResult(status -> {
+            List<Patient> patients = loadAll(state);
+            for (int i = 0; i < CHANGED; i++) {
+                Patient patient = patients.get(i);
+                patient.setBloodGroup(patient.getBloodGroup() == BloodGroup.O_POSITIVE ? BloodGroup.A_POSITIVE : BloodGroup.O_POSITIVE);
+            }
+            blackhole.consume(patients);
+        });
+    }
+
+    @Benchmark
+    public List<Insurance> loadInsurances(HospitalState state) {
+        return state.transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return state.entityManager.createQuery("SELECT i FROM Insurance i", Insurance.class).getResultList();
+        });
+    }
+
+    private static List<Patient> loadAll(HospitalState state) {
+        state.entityManager.createQuery("SELECT a FROM Appointment a", Appointment.class).getResultList();
+        return state.entityManager.createQuery("SELECT p FROM Patient p ORDER BY p.id", Patient.class).getResultList();
+    }
+}
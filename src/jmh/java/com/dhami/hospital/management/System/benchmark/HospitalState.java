@@ -0,0 +1,151 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.HospitalManagementSystemApplication;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Department;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+one spring context per benchmark trial
+-> database=h2 (default): in-memory H2 (postgres mode), nothing to set up
+-> database=postgres: the test database (src/test/resources/config/application.properties), cleaned and migrated
+   on start by support.CleanTestDatabaseStrategy like a test run, e.g. -Djmh.args="WebLoadBenchmark -p database=postgres"
+seed: 1000 patients (each with an insurance) x 5 appointments, 20 doctors, 5 departments x 10 doctors
+ */
+@State(Scope.Benchmark)
+public class HospitalState {
+
+    static final int PATIENTS = 1_000;
+    static final int APPOINTMENTS_PER_PATIENT = 5;
+    static final int DOCTORS = 20;
+    static final int DEPARTMENTS = 5;
+
+    @Param({"h2"})
+    public String database;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>(List.of("--spring.jpa.show-sql=false", "--logging.level.root=WARN"));
+        if (database.equals("h2")) {
+            args.addAll(List.of(
+                    // command line args -> they win over application.properties (postgres)
+                    "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.flyway.enabled=false", // the migrations are postgres sql, hibernate builds the h2 schema
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--hospital.appointment-partitions.enabled=false", // plain h2 table, nothing to maintain
+                    "--hospital.department-stats.enabled=false")); // its upsert is postgres only (ON CONFLICT)
+        } else if (!database.equals("postgres")) {
+            throw new IllegalArgumentException("database must be h2 or postgres: " + database);
+        }
+        args.addAll(extraArgs());
+        context = new SpringApplicationBuilder(HospitalManagementSystemApplication.class)
+                .web(webApplicationType())
+                .run(args.toArray(String[]::new));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+        try {
+            seed();
+        } catch (RuntimeException e) {
+            context.close(); // the scheduler threads would keep the forked jvm alive
+            throw e;
+        }
+    }
+
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.NONE;
+    }
+
+    protected List<String> extraArgs() {
+        return List.of();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Doctor> doctors = new ArrayList<>();
+            for (int i = 0; i < DOCTORS; i++) {
+                Doctor doctor = Doctor.builder()
+                        .name("Dr. Bench " + i)
+                        .specialization(i % 2 == 0 ? "Cardiology" : "Dermatology")
+                        .email("doctor" + i + "@bench.example.com")
+                        .appointments(new ArrayList<>())
+                        .build();
+                entityManager.persist(doctor);
+                doctors.add(doctor);
+            }
+
+            for (int i = 0; i < DEPARTMENTS; i++) {
+                Department department = new Department();
+                department.setName("Department " + i);
+                department.setHeadDoctor(doctors.get(i));
+                for (int j = 0; j < 10; j++) {
+                    department.getDoctors().add(doctors.get((i * 4 + j) % DOCTORS));
+                }
+                entityManager.persist(department);
+            }
+
+            LocalDateTime start = LocalDate.now().plusDays(1).atTime(9, 0);
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient patient = new Patient();
+                patient.setName("Bench Patient " + i);
+                patient.setEmail("patient" + i + "@bench.example.com");
+                patient.setBirthDate(LocalDate.of(1950, 1, 1).plusDays(i * 7L));
+                patient.setGender(i % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+                patient.setBloodGroup(BloodGroup.O_POSITIVE);
+                patient.setInsurance(Insurance.builder()
+                        .policyNumber("BENCH-" + i)
+                        .provider("Bench Provider")
+                        .validUntil(LocalDate.now().plusYears(1))
+                        .build());
+                entityManager.persist(patient);
+                for (int j = 0; j < APPOINTMENTS_PER_PATIENT; j++) {
+                    entityManager.persist(Appointment.builder()
+                            .appointmentTime(start.plusMinutes((long) (i * APPOINTMENTS_PER_PATIENT + j) * 30))
+                            .reason("Seeded")
+                            .patient(patient)
+                            .doctor(doctors.get((i + j) % DOCTORS))
+                            .build());
+                }
+                if (i % 50 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    doctors.replaceAll(doctor -> entityManager.getReference(Doctor.class, doctor.getId()));
+                }
+            }
+        });
+    }
+}
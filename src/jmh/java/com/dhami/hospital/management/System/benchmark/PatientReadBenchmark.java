@@ -0,0 +1,57 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+PatientRepository read paths over 1000 patients / 5000 appointments
+- eager-style: findAll() then touch every appointments collection (what the old EAGER mapping did)
+- lazy: findAll() and never touch appointments
+- graph: one select with the appointments join
+- entity vs projection list reads
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientReadBenchmark {
+
+    @Benchmark
+    public void findAllEagerStyle(HospitalState state, Blackhole blackhole) {
+        PatientRepository repository = state.bean(PatientRepository.class);
+        state.transactionTemplate.executeWithoutResult(status -> {
+            for (Patient patient : repository.findAll()) {
+                blackhole.consume(patient.getAppointments().size());
+            }
+        });
+    }
+
+    @Benchmark
+    public void findAllLazy(HospitalState state, Blackhole blackhole) {
+        PatientRepository repository = state.bean(PatientRepository.class);
+        state.transactionTemplate.executeWithoutResult(status -> blackhole.consume(repository.findAll()));
+    }
+
+    @Benchmark
+    public void findAllWithAppointmentsGraph(HospitalState state, Blackhole blackhole) {
+        PatientRepository repository = state.bean(PatientRepository.class);
+        state.transactionTemplate.executeWithoutResult(status -> {
+            for (Patient patient : repository.findAllWithAppointments()) {
+                blackhole.consume(patient.getAppointments().size());
+            }
+        });
+    }
+
+    @Benchmark
+    public List<PatientSummary> projectionRead(HospitalState state) {
+        PatientRepository repository = state.bean(PatientRepository.class);
+        return state.transactionTemplate.execute(status -> repository.findAllPatientSummaries());
+    }
+}
@@ -0,0 +1,52 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.service.DirectorySearchIndex;
+import com.dhami.hospital.management.System.service.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+typeahead latency of the patient SearchIndex at 1M patients (no spring context, no database)
+sample time -> look at p0.99 in the result, the target is < 10 ms
+run: ./mvnw -Pjmh -DskipTests test -Djmh.args="PatientSearchBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PatientSearchBenchmark {
+
+    private static final int PATIENTS = 1_000_000;
+    private static final String[] FIRST_NAMES = {"Aarav", "Diya", "John", "Joanna", "Maria", "Mohammed", "Li", "Sofia",
+            "Liam", "Olivia", "Noah", "Emma", "Arjun", "Priya", "Lucas", "Mia", "Ethan", "Zoe", "Omar", "Ana"};
+    private static final String[] LAST_NAMES = {"Patel", "Sharma", "Smith", "Smithson", "Garcia", "Khan", "Wang", "Rossi",
+            "Johnson", "Brown", "Singh", "Müller", "Silva", "Kim", "Nguyen", "Lopez", "Martin", "Cohen", "Ali", "Jones"};
+
+    @Param({"j", "jo", "smi", "john smi", "maria.garc", "mül", "patel 4711"})
+    public String query;
+
+    private SearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new DirectorySearchIndex().patients();
+        Random random = new Random(42);
+        for (long id = 1; id <= PATIENTS; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            index.put(new SearchHit(id, first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + id + "@example.com"));
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> typeahead() {
+        return index.search(query, 10);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+patient / appointment endpoints under 64 concurrent clients, platform vs virtual request threads
+SampleTime -> p50 / p99 / p99.9 latency, Throughput -> requests per second
+run it against postgres (HospitalState.database): ./mvnw -Pjmh -DskipTests test -Djmh.args="WebLoadBenchmark -p database=postgres"
+-> on H2 a query never waits for the database, the pool / bulkhead and blocking jdbc calls this compares barely show up
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class WebLoadBenchmark {
+
+    @Benchmark
+    public int patientsWindow(WebState state) throws IOException, InterruptedException {
+        return get(state, "/patients?orderBy=BIRTH_DATE&size=50");
+    }
+
+    @Benchmark
+    public int appointmentSlots(WebState state) throws IOException, InterruptedException {
+        return get(state, "/appointments/slots?from=2020-01-01T00:00:00&to=2100-01-01T00:00:00");
+    }
+
+    private int get(WebState state, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(state.baseUrl() + path)).GET().build();
+        HttpResponse<Void> response = state.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " -> HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,39 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+// HospitalState + embedded tomcat on a random port, started in platform or virtual thread mode
+@State(Scope.Benchmark)
+public class WebState extends HospitalState {
+
+    @Param({"platform", "virtual"})
+    public String threadMode;
+
+    final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    String baseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.SERVLET;
+    }
+
+    @Override
+    protected List<String> extraArgs() {
+        return threadMode.equals("virtual")
+                ? List.of("--server.port=0", "--spring.profiles.active=virtual-threads")
+                : List.of("--server.port=0");
+    }
+}
@@ -0,0 +1,56 @@
+package com.dhami.hospital.management.System.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/*
+hospital.datasource.bulkhead.enabled=true (on in the virtual-threads profile) -> every hikari pool gets its own BulkheadDataSource
+-> as many permits as the pool has connections (maximum-pool-size, bound before this runs)
+-> the pools themselves are wrapped, not "dataSource": with the replica split that is the LazyConnectionDataSourceProxy,
+   a permit is then only taken for a physical connection, from the bulkhead of the pool that serves it
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "hospital.datasource.bulkhead.enabled", havingValue = "true")
+public class ConnectionBulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionBulkheadPostProcessor(Environment environment) {
+        Duration acquireTimeout = environment.getProperty("hospital.datasource.bulkhead.acquire-timeout", Duration.class,
+                Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new BulkheadDataSource(pool, pool.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // one pair of gauges per pool, tagged with the pool's bean name (dataSource, or primaryDataSource / replicaDataSource)
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerMetrics(ApplicationReadyEvent event) {
+        ObjectProvider<MeterRegistry> registry = event.getApplicationContext().getBeanProvider(MeterRegistry.class);
+        event.getApplicationContext().getBeansOfType(BulkheadDataSource.class).forEach((pool, bulkhead) ->
+                registry.ifAvailable(meterRegistry -> {
+                    Gauge.builder("hospital.datasource.bulkhead.available", bulkhead, BulkheadDataSource::availablePermits)
+                            .tag("pool", pool)
+                            .register(meterRegistry);
+                    Gauge.builder("hospital.datasource.bulkhead.queued", bulkhead, BulkheadDataSource::queueLength)
+                            .tag("pool", pool)
+                            .register(meterRegistry);
+                }));
+    }
+}
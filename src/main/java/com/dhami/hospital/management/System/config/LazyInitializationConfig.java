@@ -0,0 +1,43 @@
+package com.dhami.hospital.management.System.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/*
+lazy bean initialization -> run with --spring.profiles.active=lazy (spring.main.lazy-initialization=true)
+-> controllers, services, repositories, jackson, actuator endpoints are created on first use instead of on startup
+-> kept eager, they must not wait for a request:
+   datasource / flyway / entity manager factory -> a failed migration or schema validation fails the boot, not the first request
+   beans with @Scheduled or @EventListener methods -> scheduled jobs are only registered once their bean exists
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    // static -> looked up by the lazy-init bean factory post processor, before regular beans exist
+    @Bean
+    static LazyInitializationExcludeFilter eagerInfrastructureAndJobs() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (DataSource.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                || Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType)).anyMatch(LazyInitializationConfig::isJobOrListener));
+    }
+
+    private static boolean isJobOrListener(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || AnnotatedElementUtils.hasAnnotation(method, EventListener.class);
+    }
+}
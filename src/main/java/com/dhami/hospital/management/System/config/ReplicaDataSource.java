@@ -0,0 +1,118 @@
+package com.dhami.hospital.management.System.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+read-only connections: replica while it keeps up, primary otherwise
+-> LazyConnectionDataSourceProxy asks here for connections of read-only transactions (see ReplicaRoutingConfig)
+-> replication lag is measured in the background (checkLag), a replica further behind than maxLag is skipped
+   until it catches up -> a read-only transaction never sees data older than maxLag
+-> a replica that cannot hand out a connection is skipped until the next successful lag check
+ */
+@Slf4j
+public class ReplicaDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+
+    private volatile Duration lag = Duration.ZERO;
+    private volatile boolean reachable = true;
+
+    public ReplicaDataSource(DataSource replica, DataSource primary, Duration maxLag, String lagQuery) {
+        super(replica);
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isUsable()) {
+            try {
+                Connection connection = obtainTargetDataSource().getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                unreachable(e);
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isUsable()) {
+            try {
+                Connection connection = obtainTargetDataSource().getConnection(username, password);
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                unreachable(e);
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection(username, password);
+    }
+
+    public boolean isUsable() {
+        return reachable && lag.compareTo(maxLag) <= 0;
+    }
+
+    // lag query returns seconds behind the primary (0 when in sync)
+    public void checkLag() {
+        try (Connection connection = obtainTargetDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            resultSet.next();
+            recordLag(Duration.ofMillis(Math.round(resultSet.getDouble(1) * 1000)));
+            if (!reachable) {
+                log.info("replica reachable again, lag {} ms", lag.toMillis());
+            }
+            reachable = true;
+        } catch (SQLException e) {
+            unreachable(e);
+        }
+    }
+
+    public void recordLag(Duration lag) {
+        boolean wasUsable = isUsable();
+        this.lag = lag;
+        if (wasUsable && !isUsable()) {
+            log.warn("replica lag {} ms above {} ms, read-only transactions go to the primary", lag.toMillis(), maxLag.toMillis());
+        } else if (!wasUsable && isUsable()) {
+            log.info("replica lag back to {} ms, read-only transactions go to the replica", lag.toMillis());
+        }
+    }
+
+    public double lagSeconds() {
+        return lag.toMillis() / 1000.0;
+    }
+
+    public long replicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    public long primaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    private void unreachable(SQLException e) {
+        if (reachable) {
+            log.warn("replica unreachable, read-only transactions go to the primary: {}", e.getMessage());
+        }
+        reachable = false;
+    }
+}
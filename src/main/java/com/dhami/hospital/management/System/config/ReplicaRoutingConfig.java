@@ -0,0 +1,109 @@
+package com.dhami.hospital.management.System.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+read / write split (hospital.datasource.replica.enabled=true, see application-replica.properties)
+-> "dataSource" is a LazyConnectionDataSourceProxy over the primary pool: the physical connection is only taken at the
+   first statement, after the transaction manager marked it read-only for @Transactional(readOnly = true)
+-> read-only connections come from ReplicaDataSource (replica pool, primary when the replica lags or is down),
+   everything else from the primary; repository calls outside a service transaction are read-only as well
+-> two hikari pools ("primary", "replica"), boot publishes hikaricp.* metrics per pool,
+   plus replica lag and read-only connections per pool below
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "hospital.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final String PG_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    // spring.datasource.* + spring.datasource.hikari.* as without the split
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // hospital.datasource.replica.pool.* -> any hikari setting (jdbc-url, username, password, maximum-pool-size, ...)
+    @Bean
+    @ConfigurationProperties("hospital.datasource.replica.pool")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true); // a write routed here by mistake fails instead of diverging from the primary
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaDataSource replicaReadDataSource(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                   @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                   Environment environment) {
+        return new ReplicaDataSource(replicaDataSource, primaryDataSource,
+                environment.getProperty("hospital.datasource.replica.max-lag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("hospital.datasource.replica.lag-query", PG_LAG_QUERY));
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                    ReplicaDataSource replicaReadDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaReadDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaDataSource replicaReadDataSource, ObjectProvider<MeterRegistry> registry) {
+        registry.ifAvailable(meterRegistry -> {
+            Gauge.builder("hospital.datasource.replica.lag", replicaReadDataSource, ReplicaDataSource::lagSeconds)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            FunctionCounter.builder("hospital.datasource.read-only.connections", replicaReadDataSource,
+                            ReplicaDataSource::replicaConnections)
+                    .tag("pool", "replica")
+                    .register(meterRegistry);
+            FunctionCounter.builder("hospital.datasource.read-only.connections", replicaReadDataSource,
+                            ReplicaDataSource::primaryConnections)
+                    .tag("pool", "primary")
+                    .register(meterRegistry);
+        });
+        return new ReplicaLagMonitor(replicaReadDataSource);
+    }
+
+    // the replica is trusted until the first check, one interval after startup
+    public static class ReplicaLagMonitor {
+
+        private final ReplicaDataSource replicaReadDataSource;
+
+        public ReplicaLagMonitor(ReplicaDataSource replicaReadDataSource) {
+            this.replicaReadDataSource = replicaReadDataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${hospital.datasource.replica.lag-check-interval:1s}",
+                initialDelayString = "${hospital.datasource.replica.lag-check-interval:1s}")
+        public void checkLag() {
+            replicaReadDataSource.checkLag();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.dhami.hospital.management.System.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.resilience.annotation.EnableResilientMethods;
+
+// @Retryable service methods (@RetryOnOptimisticLock: optimistic lock conflicts), the retry proxy wraps @Transactional -> every attempt is a new transaction
+@Configuration(proxyBeanMethods = false)
+@EnableResilientMethods
+public class ResilienceConfig {
+}
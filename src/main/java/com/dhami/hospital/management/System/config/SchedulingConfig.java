@@ -0,0 +1,10 @@
+package com.dhami.hospital.management.System.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled batch jobs (insurance expiry sweep, stats rebuild, outbox relay), boot's taskScheduler -> virtual threads when enabled
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig {
+}
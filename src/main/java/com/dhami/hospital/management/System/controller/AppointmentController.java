@@ -0,0 +1,71 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.AppointmentSlotView;
+import com.dhami.hospital.management.System.dto.ScrollResponse;
+import com.dhami.hospital.management.System.service.AppointmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/appointments")
+@RequiredArgsConstructor
+public class AppointmentController {
+
+    private final AppointmentService appointmentService;
+
+    // GET /appointments?size=20&token=<next from previous response>
+    @GetMapping
+    public ScrollResponse<AppointmentResponse> scrollAppointments(
+            @RequestParam(required = false) String token,
+            @RequestParam(defaultValue = "20") int size) {
+        return appointmentService.scrollAppointments(token, Math.clamp(size, 1, ScrollResponse.MAX_SIZE));
+    }
+
+    // GET /appointments/slots?from=2025-07-01T00:00:00&to=2025-07-08T00:00:00
+    @GetMapping("/slots")
+    public List<AppointmentSlotView> getSlotViews(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return appointmentService.getSlotViews(from, to);
+    }
+
+    // GET /appointments/doctors/1?from=2025-07-01T00:00:00&to=2025-07-08T00:00:00
+    @GetMapping("/doctors/{doctorId}")
+    public List<AppointmentResponse> getDoctorAgenda(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return appointmentService.getDoctorAgenda(doctorId, from, to);
+    }
+
+    // GET /appointments/patients/2/upcoming?size=10
+    @GetMapping("/patients/{patientId}/upcoming")
+    public List<AppointmentResponse> getUpcomingForPatient(
+            @PathVariable Long patientId,
+            @RequestParam(defaultValue = "10") int size) {
+        return appointmentService.getUpcomingForPatient(patientId, Math.clamp(size, 1, ScrollResponse.MAX_SIZE));
+    }
+
+    // DELETE /appointments?before=2024-01-01T00:00:00 -> number of purged appointments
+    @DeleteMapping
+    public int purgeAppointments(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        return appointmentService.purgeBefore(before);
+    }
+
+    // POST /appointments/reassign?fromDoctorId=1&toDoctorId=2 -> number of moved appointments
+    @PostMapping("/reassign")
+    public int reassignDoctor(@RequestParam Long fromDoctorId, @RequestParam Long toDoctorId) {
+        return appointmentService.reassignDoctor(fromDoctorId, toDoctorId);
+    }
+}
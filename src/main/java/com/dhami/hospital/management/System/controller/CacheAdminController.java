@@ -0,0 +1,32 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.CacheRegionStats;
+import com.dhami.hospital.management.System.service.ReferenceDataCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/cache")
+@RequiredArgsConstructor
+public class CacheAdminController {
+
+    private final ReferenceDataCacheService referenceDataCacheService;
+
+    // hit / miss / put counts per second level cache region
+    @GetMapping
+    public List<CacheRegionStats> regionStats() {
+        return referenceDataCacheService.regionStats();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        referenceDataCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
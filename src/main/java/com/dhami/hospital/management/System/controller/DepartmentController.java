@@ -0,0 +1,38 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.DepartmentDayCount;
+import com.dhami.hospital.management.System.dto.DepartmentStatsView;
+import com.dhami.hospital.management.System.service.DepartmentStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/departments")
+@RequiredArgsConstructor
+public class DepartmentController {
+
+    private final DepartmentStatsService departmentStatsService;
+
+    // GET /departments/stats -> dashboard, one precomputed row per department
+    @GetMapping("/stats")
+    public List<DepartmentStatsView> getDashboard() {
+        return departmentStatsService.getDashboard();
+    }
+
+    // GET /departments/1/stats/daily?from=2025-07-01&to=2025-07-31
+    @GetMapping("/{departmentId}/stats/daily")
+    public List<DepartmentDayCount> getDailyCounts(
+            @PathVariable Long departmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return departmentStatsService.getDailyCounts(departmentId, from, to);
+    }
+}
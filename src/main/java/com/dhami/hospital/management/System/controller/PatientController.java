@@ -0,0 +1,73 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.dto.PatientUpdateRequest;
+import com.dhami.hospital.management.System.dto.ScrollResponse;
+import com.dhami.hospital.management.System.service.PatientExportService;
+import com.dhami.hospital.management.System.service.PatientImportService;
+import com.dhami.hospital.management.System.service.PatientService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/patients")
+@RequiredArgsConstructor
+public class PatientController {
+
+    private final PatientService patientService;
+    private final PatientExportService patientExportService;
+
+    // GET /patients?orderBy=BIRTH_DATE&size=20&token=<next from previous response>
+    @GetMapping
+    public ScrollResponse<PatientSummary> scrollPatients(
+            @RequestParam(defaultValue = "ID") PatientService.PatientOrder orderBy,
+            @RequestParam(required = false) String token,
+            @RequestParam(defaultValue = "20") int size) {
+        return patientService.scrollPatients(orderBy, token, Math.clamp(size, 1, ScrollResponse.MAX_SIZE));
+    }
+
+    // GET /patients/by-email?email=Diya.Patel@example.com (case insensitive)
+    @GetMapping("/by-email")
+    public PatientSummary getByEmail(@RequestParam String email) {
+        return patientService.getByEmail(email);
+    }
+
+    // PATCH /patients/7 {"email": "new@example.com"} -> only the given fields change
+    @PatchMapping("/{patientId}")
+    public PatientSummary updatePatient(@PathVariable Long patientId, @RequestBody PatientUpdateRequest request) {
+        return patientService.updatePatient(patientId, request);
+    }
+
+    // GET /patients/export?format=NDJSON -> written straight to the response while the cursor is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") PatientImportService.Format format) {
+        MediaType mediaType = format == PatientImportService.Format.CSV
+                ? new MediaType("text", "csv")
+                : MediaType.APPLICATION_NDJSON;
+        String fileName = "patients." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(outputStream -> patientExportService.export(outputStream, format));
+    }
+
+    // DELETE /patients?ids=1,2,3 -> patients, their appointments and insurances in a few set based statements
+    @DeleteMapping
+    public int deletePatients(@RequestParam List<Long> ids) {
+        return patientService.deletePatients(ids);
+    }
+}
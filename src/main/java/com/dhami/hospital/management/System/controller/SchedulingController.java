@@ -0,0 +1,64 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.AvailableSlot;
+import com.dhami.hospital.management.System.dto.BookingRequest;
+import com.dhami.hospital.management.System.service.SchedulingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/scheduling")
+@RequiredArgsConstructor
+public class SchedulingController {
+
+    private final SchedulingService schedulingService;
+
+    @PostMapping("/bookings")
+    public ResponseEntity<AppointmentResponse> book(@RequestBody BookingRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(schedulingService.book(request));
+    }
+
+    // PUT /scheduling/bookings/7?appointmentTime=2025-07-01T10:30:00
+    @PutMapping("/bookings/{appointmentId}")
+    public ResponseEntity<AppointmentResponse> reschedule(
+            @PathVariable Long appointmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime appointmentTime) {
+        return ResponseEntity.ok(schedulingService.reschedule(appointmentId, appointmentTime));
+    }
+
+    @DeleteMapping("/bookings/{appointmentId}")
+    public ResponseEntity<Void> cancel(@PathVariable Long appointmentId) {
+        schedulingService.cancel(appointmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // GET /scheduling/doctors/1/next-slot?from=2025-07-01T09:00:00
+    @GetMapping("/doctors/{doctorId}/next-slot")
+    public ResponseEntity<AvailableSlot> nextFreeSlot(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from) {
+        return ResponseEntity.of(schedulingService.nextFreeSlot(doctorId, from));
+    }
+
+    // GET /scheduling/next-slot?specialization=Cardiology
+    @GetMapping("/next-slot")
+    public ResponseEntity<AvailableSlot> nextFreeSlotBySpecialization(
+            @RequestParam String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from) {
+        return ResponseEntity.of(schedulingService.nextFreeSlotBySpecialization(specialization, from));
+    }
+}
@@ -0,0 +1,44 @@
+package com.dhami.hospital.management.System.controller;
+
+import com.dhami.hospital.management.System.dto.DonorMatch;
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.service.DonorMatchingService;
+import com.dhami.hospital.management.System.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+    private final DonorMatchingService donorMatchingService;
+
+    // GET /search/patients?q=diya pat -> every term must start a word of the name or the email (before @)
+    @GetMapping("/patients")
+    public List<SearchHit> searchPatients(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return searchService.searchPatients(q, limit);
+    }
+
+    // GET /search/doctors?q=cardio
+    @GetMapping("/doctors")
+    public List<SearchHit> searchDoctors(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return searchService.searchDoctors(q, limit);
+    }
+
+    // GET /search/donors?recipient=A_NEGATIVE&minAge=18&maxAge=65 -> patients whose blood the recipient can receive
+    @GetMapping("/donors")
+    public DonorMatch searchDonors(@RequestParam BloodGroup recipient,
+                                   @RequestParam(required = false) Integer minAge,
+                                   @RequestParam(required = false) Integer maxAge,
+                                   @RequestParam(defaultValue = "100") int limit) {
+        return donorMatchingService.findCompatibleDonors(recipient, minAge, maxAge, limit);
+    }
+}
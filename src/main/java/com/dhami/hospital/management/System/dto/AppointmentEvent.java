@@ -0,0 +1,32 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+// outbox payload for appointment changes, previous* is only set for MOVED
+public record AppointmentEvent(
+        Type type,
+        Long appointmentId,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentTime,
+        Long previousDoctorId,
+        LocalDateTime previousAppointmentTime
+) {
+
+    public enum Type { CREATED, MOVED, CANCELLED }
+
+    public static AppointmentEvent created(AppointmentResponse appointment) {
+        return new AppointmentEvent(Type.CREATED, appointment.id(), appointment.patientId(), appointment.doctorId(),
+                appointment.appointmentTime(), null, null);
+    }
+
+    public static AppointmentEvent moved(AppointmentResponse before, Long doctorId, LocalDateTime appointmentTime) {
+        return new AppointmentEvent(Type.MOVED, before.id(), before.patientId(), doctorId, appointmentTime,
+                before.doctorId(), before.appointmentTime());
+    }
+
+    public static AppointmentEvent cancelled(AppointmentResponse appointment) {
+        return new AppointmentEvent(Type.CANCELLED, appointment.id(), appointment.patientId(), appointment.doctorId(),
+                appointment.appointmentTime(), null, null);
+    }
+}
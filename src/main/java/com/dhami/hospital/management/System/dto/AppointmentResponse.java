@@ -0,0 +1,20 @@
+package com.dhami.hospital.management.System.dto;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+
+import java.time.LocalDateTime;
+
+public record AppointmentResponse(
+        Long id,
+        LocalDateTime appointmentTime,
+        String reason,
+        Long patientId,
+        Long doctorId
+) {
+
+    // getId() on a lazy proxy does not hit the database
+    public static AppointmentResponse from(Appointment appointment) {
+        return new AppointmentResponse(appointment.getId(), appointment.getAppointmentTime(), appointment.getReason(),
+                appointment.getPatient().getId(), appointment.getDoctor().getId());
+    }
+}
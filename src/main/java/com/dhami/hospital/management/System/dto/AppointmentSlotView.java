@@ -0,0 +1,12 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+// appointment list row, doctor / patient names come from the same select (joins, no lazy loads)
+public record AppointmentSlotView(
+        Long id,
+        LocalDateTime appointmentTime,
+        String doctorName,
+        String patientName
+) {
+}
@@ -0,0 +1,11 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+public record AvailableSlot(
+        Long doctorId,
+        String doctorName,
+        LocalDateTime start,
+        LocalDateTime end
+) {
+}
@@ -0,0 +1,10 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+public record BookedSlot(
+        Long appointmentId,
+        Long doctorId,
+        LocalDateTime appointmentTime
+) {
+}
@@ -0,0 +1,11 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+public record BookingRequest(
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentTime,
+        String reason
+) {
+}
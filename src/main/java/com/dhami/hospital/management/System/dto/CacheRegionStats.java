@@ -0,0 +1,15 @@
+package com.dhami.hospital.management.System.dto;
+
+public record CacheRegionStats(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        long elementsInMemory
+) {
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDate;
+
+public record DepartmentDayCount(
+        LocalDate appointmentDate,
+        long appointmentCount
+) {
+}
@@ -0,0 +1,13 @@
+package com.dhami.hospital.management.System.dto;
+
+public record DepartmentStatsView(
+        Long departmentId,
+        String departmentName,
+        long doctorCount,
+        Long headDoctorId,
+        String headDoctorName,
+        long headDoctorAppointmentCount,
+        long appointmentCount,
+        long appointmentsToday
+) {
+}
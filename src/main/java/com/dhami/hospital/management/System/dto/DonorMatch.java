@@ -0,0 +1,10 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.util.List;
+
+// total = every compatible donor in the age range, patientIds = the first ones by id (at most the requested limit)
+public record DonorMatch(
+        long total,
+        List<Long> patientIds
+) {
+}
@@ -0,0 +1,13 @@
+package com.dhami.hospital.management.System.dto;
+
+import com.dhami.hospital.management.System.entity.BloodGroup;
+
+import java.time.LocalDate;
+
+// what DonorIndex knows about a patient, birthDate may be null
+public record DonorProfile(
+        Long patientId,
+        BloodGroup bloodGroup,
+        LocalDate birthDate
+) {
+}
@@ -0,0 +1,10 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.Duration;
+
+public record ExpirySweepResult(
+        int expired,
+        int expiring,
+        Duration elapsed
+) {
+}
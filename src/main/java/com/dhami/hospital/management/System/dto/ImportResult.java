@@ -0,0 +1,30 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+rows     -> patients read from the file (one NDJSON line, or adjacent CSV lines with the same email)
+patients -> rows imported, rejected = rows that were skipped (unreadable, incomplete or refused by the database)
+errors   -> why, for the first MAX_ERRORS rejected rows, line = first line of the row in the file
+ */
+public record ImportResult(
+        long rows,
+        long patients,
+        long insurances,
+        long appointments,
+        long rejected,
+        List<RowError> errors,
+        Duration elapsed
+) {
+
+    public static final int MAX_ERRORS = 100;
+
+    public record RowError(long line, String message) {
+    }
+
+    public double rowsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds == 0 ? rows : rows / seconds;
+    }
+}
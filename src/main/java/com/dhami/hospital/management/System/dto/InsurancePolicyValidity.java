@@ -0,0 +1,14 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDate;
+
+public record InsurancePolicyValidity(
+        Long insuranceId,
+        String policyNumber,
+        LocalDate validUntil
+) {
+
+    public boolean isValidOn(LocalDate date) {
+        return !validUntil.isBefore(date);
+    }
+}
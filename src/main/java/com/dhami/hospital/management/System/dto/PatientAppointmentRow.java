@@ -0,0 +1,11 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.time.LocalDateTime;
+
+public record PatientAppointmentRow(
+        Long patientId,
+        LocalDateTime appointmentTime,
+        String reason,
+        Long doctorId
+) {
+}
@@ -0,0 +1,31 @@
+package com.dhami.hospital.management.System.dto;
+
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+one patient of an import file (one NDJSON line, or adjacent CSV rows with the same email)
+{"name":"..","gender":"MALE","birthDate":"1990-05-10","email":"..","bloodGroup":"O_POSITIVE",
+ "insurance":{"policyNumber":"..","provider":"..","validUntil":"2030-01-01"},
+ "appointments":[{"appointmentTime":"2025-07-01T10:30:00","reason":"..","doctorId":1}]}
+ */
+public record PatientImportRow(
+        String name,
+        Gender gender,
+        LocalDate birthDate,
+        String email,
+        BloodGroup bloodGroup,
+        InsuranceRow insurance,
+        List<AppointmentRow> appointments
+) {
+
+    public record InsuranceRow(String policyNumber, String provider, LocalDate validUntil) {
+    }
+
+    public record AppointmentRow(LocalDateTime appointmentTime, String reason, Long doctorId) {
+    }
+}
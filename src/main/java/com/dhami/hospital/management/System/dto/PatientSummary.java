@@ -0,0 +1,14 @@
+package com.dhami.hospital.management.System.dto;
+
+import com.dhami.hospital.management.System.entity.BloodGroup;
+
+import java.time.LocalDate;
+
+// list screen row -> plain record, never managed by the persistence context (no snapshot, no dirty checking)
+public record PatientSummary(
+        Long id,
+        String name,
+        LocalDate birthDate,
+        BloodGroup bloodGroup
+) {
+}
@@ -0,0 +1,11 @@
+package com.dhami.hospital.management.System.dto;
+
+import com.dhami.hospital.management.System.entity.BloodGroup;
+
+// partial update, null -> field stays as it is
+public record PatientUpdateRequest(
+        String name,
+        String email,
+        BloodGroup bloodGroup
+) {
+}
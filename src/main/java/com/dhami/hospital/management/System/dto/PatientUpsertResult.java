@@ -0,0 +1,18 @@
+package com.dhami.hospital.management.System.dto;
+
+/*
+outcome of one row of PatientRepository.upsertAll
+-> insuranceId / insurance are null for a row without a policy
+-> replacedInsuranceId: the policy the patient pointed to before a new one was linked, deleted as an orphan
+-> EMAIL_TAKEN: the email belongs to another patient, nothing of the row was written (every other field is null)
+ */
+public record PatientUpsertResult(
+        Long patientId,
+        Outcome patient,
+        Long insuranceId,
+        Outcome insurance,
+        Long replacedInsuranceId
+) {
+
+    public enum Outcome { INSERTED, UPDATED, UNCHANGED, EMAIL_TAKEN }
+}
@@ -0,0 +1,12 @@
+package com.dhami.hospital.management.System.dto;
+
+import java.util.List;
+
+/*
+one window of a keyset scroll
+next -> opaque continuation token, pass it back as ?token=... (null when there is nothing more)
+ */
+public record ScrollResponse<T>(List<T> items, String next) {
+
+    public static final int MAX_SIZE = 100;
+}
@@ -0,0 +1,9 @@
+package com.dhami.hospital.management.System.dto;
+
+// search result: patient -> detail is the email, doctor -> detail is the specialization
+public record SearchHit(
+        Long id,
+        String name,
+        String detail
+) {
+}
@@ -1,11 +1,27 @@
 package com.dhami.hospital.management.System.entity;
 
+import com.dhami.hospital.management.System.listener.AppointmentStatsListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(
+        uniqueConstraints = {
+                //last line of defence against double booking, SchedulingService checks overlaps under a row lock
+                //its index (doctor_id, appointment_time) also serves "appointments of doctor X between t1 and t2"
+                @UniqueConstraint(name = "unique_doctor_appointment_time", columnNames = {"doctor_id", "appointmentTime"})
+        },
+        indexes = {
+                //"upcoming appointments of patient Y" -> equality on patient_id, range + order on appointment_time
+                @Index(name = "idx_appointment_patient_time", columnList = "patient_id, appointmentTime")
+        }
+)
+@EntityListeners(AppointmentStatsListener.class) // department stats deltas
+@NamedEntityGraph(name = Appointment.GRAPH_WITH_REASON, attributeNodes = @NamedAttributeNode("reason"))
+//postgres: partitioned by month on appointment_time, primary key (id, appointment_time) -> see db/migration/V1__init_schema.sql
 @Getter
 @Setter
 @Builder
@@ -14,17 +30,29 @@ import java.time.LocalDateTime;
 @ToString
 public class Appointment {
 
+    public static final String GRAPH_WITH_REASON = "Appointment.withReason";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false)
     private LocalDateTime appointmentTime;
 
+    //free text up to 500 chars, only the single appointment views show it -> not part of the row hibernate loads
+    //(lazy basic attribute, needs bytecode enhancement), list reads either project it or fetch it with GRAPH_WITH_REASON
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 500)
+    @ToString.Exclude
     private String reason;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     @JoinColumn(name = "patient_id", nullable = false) // patient is required and not nullable
     private Patient patient;
@@ -33,6 +61,22 @@ public class Appointment {
     @ToString.Exclude
     @JoinColumn(nullable = false)
     private Doctor doctor;
+
+    //doctor + time as last read from / written to the db, lets the stats listener see what an update changed
+    @Transient
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private Long persistedDoctorId;
+
+    @Transient
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime persistedAppointmentTime;
+
+    public void rememberPersistedState() {
+        this.persistedDoctorId = doctor == null ? null : doctor.getId();
+        this.persistedAppointmentTime = appointmentTime;
+    }
 }
 
 /*
@@ -0,0 +1,57 @@
+package com.dhami.hospital.management.System.entity;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ABO / Rh blood group, stored by name (patient.blood_group)
+antigens as bits: A = 1, B = 2, RhD = 4
+red cells of a donor fit a recipient when the donor carries no antigen the recipient lacks
+-> O_NEGATIVE (no antigen) gives to everyone, AB_POSITIVE (all three) receives from everyone
+ */
+public enum BloodGroup {
+    O_NEGATIVE(0),
+    O_POSITIVE(4),
+    A_NEGATIVE(1),
+    A_POSITIVE(1 | 4),
+    B_NEGATIVE(2),
+    B_POSITIVE(2 | 4),
+    AB_NEGATIVE(1 | 2),
+    AB_POSITIVE(1 | 2 | 4);
+
+    // V3__patient_gender_blood_group_enums.sql normalizes existing rows with the same pattern
+    private static final Pattern SPELLING = Pattern.compile("(AB|A|B|O)(\\+|\\+VE|POS|POSITIVE|-|-VE|NEG|NEGATIVE)");
+
+    private final int antigens;
+
+    BloodGroup(int antigens) {
+        this.antigens = antigens;
+    }
+
+    // 'O_POSITIVE', 'O+', 'ab-ve', 'B pos', 'a negative' -> whitespace / underscores dropped, case ignored
+    public static BloodGroup parse(String text) {
+        Matcher matcher = SPELLING.matcher(text.replaceAll("[\\s_]", "").toUpperCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unknown blood group '" + text + "', expected e.g. O_POSITIVE, O+, AB-VE");
+        }
+        String rh = matcher.group(2);
+        return valueOf(matcher.group(1) + (rh.startsWith("+") || rh.startsWith("POS") ? "_POSITIVE" : "_NEGATIVE"));
+    }
+
+    public boolean canDonateTo(BloodGroup recipient) {
+        return (antigens & ~recipient.antigens) == 0;
+    }
+
+    public Set<BloodGroup> compatibleDonors() {
+        EnumSet<BloodGroup> donors = EnumSet.noneOf(BloodGroup.class);
+        for (BloodGroup donor : values()) {
+            if (donor.canDonateTo(this)) {
+                donors.add(donor);
+            }
+        }
+        return donors;
+    }
+}
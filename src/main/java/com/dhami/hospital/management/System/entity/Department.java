@@ -1,10 +1,14 @@
 package com.dhami.hospital.management.System.entity;
 
+import com.dhami.hospital.management.System.listener.DepartmentStatsListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -14,12 +18,21 @@ import java.util.Set;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department")
+@EntityListeners(DepartmentStatsListener.class)
 public class Department {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "department_seq")
+    @SequenceGenerator(name = "department_seq", sequenceName = "department_seq", allocationSize = 50)
     private Long id;
 
+    //also bumped when the doctors collection changes (owning side)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false, unique = true, length = 100)
     private String name;
 
@@ -27,6 +40,7 @@ public class Department {
     private Doctor headDoctor;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department.doctors")
     @JoinTable(
             name = "my_dpt_doctors",
             joinColumns = @JoinColumn(name = "dpt_id"),
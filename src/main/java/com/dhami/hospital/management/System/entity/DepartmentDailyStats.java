@@ -0,0 +1,39 @@
+package com.dhami.hospital.management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// appointments per department and day, same maintenance as DepartmentStats
+@Entity
+@Table(name = "department_daily_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DepartmentDailyStats {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long appointmentCount;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long departmentId;
+
+        private LocalDate appointmentDate;
+    }
+}
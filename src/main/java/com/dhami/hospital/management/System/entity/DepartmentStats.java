@@ -0,0 +1,44 @@
+package com.dhami.hospital.management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/*
+read model for the department dashboard, one row per department
+maintained by DepartmentStatsService (incremental deltas on appointment writes, full rebuild nightly)
+never written through this entity -> no FK to department, rows are replaced by set based sql
+ */
+@Entity
+@Table(name = "department_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DepartmentStats {
+
+    @Id
+    private Long departmentId;
+
+    @Column(nullable = false, length = 100)
+    private String departmentName;
+
+    @Column(nullable = false)
+    private long doctorCount;
+
+    private Long headDoctorId;
+
+    @Column(length = 100)
+    private String headDoctorName;
+
+    @Column(nullable = false)
+    private long appointmentCount;
+
+    @Column(nullable = false)
+    private long headDoctorAppointmentCount;
+
+    @Column(nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,20 @@
+package com.dhami.hospital.management.System.entity;
+
+import java.util.Locale;
+
+// stored by name (patient.gender)
+public enum Gender {
+    MALE,
+    FEMALE,
+    OTHER;
+
+    // 'FEMALE', ' male', 'f', 'M' -> same normalization as V3__patient_gender_blood_group_enums.sql
+    public static Gender parse(String text) {
+        return switch (text.trim().toUpperCase(Locale.ROOT)) {
+            case "MALE", "M" -> MALE;
+            case "FEMALE", "F" -> FEMALE;
+            case "OTHER" -> OTHER;
+            default -> throw new IllegalArgumentException("Unknown gender '" + text + "', expected MALE, FEMALE, OTHER, M or F");
+        };
+    }
+}
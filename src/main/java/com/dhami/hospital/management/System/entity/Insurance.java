@@ -1,7 +1,11 @@
 package com.dhami.hospital.management.System.entity;
 
+import com.dhami.hospital.management.System.listener.InsurancePolicyIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDate;
@@ -13,12 +17,21 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "insurance")
+@Table(indexes = @Index(name = "idx_insurance_valid_until", columnList = "validUntil")) // expiry sweep range scan
+@EntityListeners(InsurancePolicyIndexListener.class) // keeps the policy number index in sync with entity writes
 public class Insurance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "insurance_seq")
+    @SequenceGenerator(name = "insurance_seq", sequenceName = "insurance_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false, unique = true, length = 50)
     private String policyNumber;
 
@@ -28,6 +41,11 @@ public class Insurance {
     @Column(nullable = false)
     private LocalDate validUntil;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private InsuranceStatus status = InsuranceStatus.ACTIVE;
+
     @CreationTimestamp//from hibernate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -37,6 +55,8 @@ public class Insurance {
     //owing side and inverse side
     //single source of truth
     //hme bidirectional bhi krni h or ek hi side column then mappedBy value
-    @OneToOne(mappedBy = "insurance") // inverse side
+    //inverse side has no fk column -> without bytecode enhancement hibernate cannot tell "no patient" from "a patient"
+    //and loads the patient with every insurance; enhanced (hibernate-maven-plugin) it stays unloaded until read
+    @OneToOne(mappedBy = "insurance", fetch = FetchType.LAZY) // inverse side
     private Patient patient;
 }
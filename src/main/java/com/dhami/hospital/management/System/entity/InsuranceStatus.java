@@ -0,0 +1,8 @@
+package com.dhami.hospital.management.System.entity;
+
+// lifecycle maintained by the nightly expiry sweep (InsuranceService), renewals reset it to ACTIVE
+public enum InsuranceStatus {
+    ACTIVE,
+    EXPIRING,
+    EXPIRED
+}
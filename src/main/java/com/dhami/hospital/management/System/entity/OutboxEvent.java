@@ -0,0 +1,62 @@
+package com.dhami.hospital.management.System.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/*
+transactional outbox, one row per domain event
+written in the same transaction as the change it describes (commits / rolls back with it)
+OutboxRelay delivers rows in id order and deletes them once every listener accepted them
+id order is only meaningful per appointment:
+-> allocationSize 1 -> every id is a nextval taken inside the writing transaction
+   (a pooled block per instance would hand a later change on another instance a smaller id: MOVED before CREATED)
+-> events are appended after the appointment was read / locked, and a change to an appointment only commits
+   after the previous one did (version check, doctor lock) -> its nextval, and so its id, is larger
+-> ids of different appointments are not in commit order (a smaller id can commit later), no order between them
+ */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    //event as json, the relay deserializes it for the listeners
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    //failed deliveries -> retried with backoff, after too many attempts the event is parked (dead) and skipped
+    @Column(nullable = false)
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private boolean dead;
+}
@@ -1,8 +1,11 @@
 package com.dhami.hospital.management.System.entity;
 
+import com.dhami.hospital.management.System.listener.DonorIndexListener;
+import com.dhami.hospital.management.System.listener.PatientSearchListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -19,12 +22,39 @@ import java.util.List;
                 @Index(name = "idx_patient_birth_date", columnList = "birthDate")
         }
 )
+//fetch plans - associations are LAZY by default, caller picks the graph it needs per use case
+@NamedEntityGraph(name = Patient.GRAPH_SUMMARY)
+@NamedEntityGraph(name = Patient.GRAPH_WITH_APPOINTMENTS,
+        attributeNodes = @NamedAttributeNode("appointments"))
+@NamedEntityGraph(name = Patient.GRAPH_WITH_APPOINTMENTS_AND_DOCTOR,
+        attributeNodes = @NamedAttributeNode(value = "appointments", subgraph = "appointment.doctor"),
+        subgraphs = @NamedSubgraph(name = "appointment.doctor", attributeNodes = @NamedAttributeNode("doctor")))
+@NamedEntityGraph(name = Patient.GRAPH_WITH_INSURANCE,
+        attributeNodes = @NamedAttributeNode("insurance"))
+@EntityListeners({
+        PatientSearchListener.class, // keeps the patient search index in sync
+        DonorIndexListener.class // blood group / birth date bitmaps for donor matching
+})
 @Getter@Setter
 public class Patient {
+
+    public static final String GRAPH_SUMMARY = "Patient.summary";
+    public static final String GRAPH_WITH_APPOINTMENTS = "Patient.withAppointments";
+    public static final String GRAPH_WITH_APPOINTMENTS_AND_DOCTOR = "Patient.withAppointmentsAndDoctor";
+    public static final String GRAPH_WITH_INSURANCE = "Patient.withInsurance";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
     private Long id;
 
+    //optimistic lock: UPDATE ... WHERE id = ? AND version = ?, a concurrent edit fails instead of being overwritten
+    //(default 0 -> rows inserted by plain sql start at version 0 as well)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false, length = 40)
     private String name;
 
@@ -34,17 +64,20 @@ public class Patient {
     @Column(unique = true, nullable = false)
     private String email;
 
-    private String gender;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Gender gender;
 
-    //@Enumerated(EnumType.STRING)
-    private String bloodGroup;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 11)
+    private BloodGroup bloodGroup;
 
-    @OneToOne(cascade = {CascadeType.ALL}, orphanRemoval = true)
+    @OneToOne(cascade = {CascadeType.ALL}, orphanRemoval = true, fetch = FetchType.LAZY)
     //customize fk name
     @JoinColumn(name = "patient_insurance_id") // owning side
     private Insurance insurance;
 
-    @OneToMany(mappedBy = "patient", cascade = {CascadeType.REMOVE}, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "patient", cascade = {CascadeType.REMOVE}, orphanRemoval = true) // LAZY (default), use an entity graph to fetch
     private List<Appointment> appointments = new ArrayList<>();
 }
 
@@ -65,6 +98,13 @@ your Entity class also needs one.
 @GeneratedValue(strategy = GenerationType.IDENTITY)
 private Long id;
 -> "Database automatically generates the ID (1, 2, 3, 4…)"
+but -> hibernate has to fire each INSERT alone to read the id back, so jdbc batching is disabled
+
+🚀 With pooled sequence (what we use now)
+@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+@SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
+-> one nextval() reserves a block of 50 ids, hibernate hands them out in memory
+-> inserts can be grouped (hibernate.jdbc.batch_size) -> far fewer round trips
 
 
  */
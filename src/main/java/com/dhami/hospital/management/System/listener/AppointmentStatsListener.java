@@ -0,0 +1,67 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.service.DepartmentStatsService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/*
+appointment callbacks -> +1 / -1 department stats deltas (DepartmentStatsService)
+the state last seen in the database is kept on the entity, so an update becomes -1 old day / +1 new day
+ObjectProvider: the listener is created while the EntityManagerFactory is built, the service needs that factory
+ */
+@RequiredArgsConstructor
+public class AppointmentStatsListener {
+
+    private final ObjectProvider<DepartmentStatsService> statsService;
+
+    @PostLoad
+    public void loaded(Appointment appointment) {
+        appointment.rememberPersistedState();
+        statsService.getObject().watch(); // a loaded appointment may be changed later in this transaction
+    }
+
+    @PrePersist
+    @PreRemove
+    public void changing(Appointment appointment) {
+        statsService.getObject().watch();
+    }
+
+    @PostPersist
+    public void persisted(Appointment appointment) {
+        statsService.getObject().appointmentsChanged(appointment.getDoctor().getId(),
+                appointment.getAppointmentTime().toLocalDate(), 1);
+        appointment.rememberPersistedState();
+    }
+
+    @PostUpdate
+    public void updated(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDate day = appointment.getAppointmentTime().toLocalDate();
+        LocalDateTime persistedTime = appointment.getPersistedAppointmentTime();
+        if (persistedTime != null && (!Objects.equals(doctorId, appointment.getPersistedDoctorId())
+                || !day.equals(persistedTime.toLocalDate()))) {
+            statsService.getObject().appointmentsChanged(appointment.getPersistedDoctorId(), persistedTime.toLocalDate(), -1);
+            statsService.getObject().appointmentsChanged(doctorId, day, 1);
+        }
+        appointment.rememberPersistedState();
+    }
+
+    @PostRemove
+    public void removed(Appointment appointment) {
+        LocalDateTime persistedTime = appointment.getPersistedAppointmentTime();
+        statsService.getObject().appointmentsChanged(
+                Objects.requireNonNullElse(appointment.getPersistedDoctorId(), appointment.getDoctor().getId()),
+                Objects.requireNonNullElse(persistedTime, appointment.getAppointmentTime()).toLocalDate(), -1);
+    }
+}
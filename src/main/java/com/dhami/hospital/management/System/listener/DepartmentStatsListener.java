@@ -0,0 +1,34 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.entity.Department;
+import com.dhami.hospital.management.System.service.DepartmentStatsService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+// new / changed / removed department, or changed head doctor -> recompute that department (DepartmentStatsService)
+// (doctor membership is a collection change without entity callback: call refresh() after changing it)
+@RequiredArgsConstructor
+public class DepartmentStatsListener {
+
+    private final ObjectProvider<DepartmentStatsService> statsService;
+
+    @PostLoad
+    @PrePersist
+    @PreRemove
+    public void changing(Department department) {
+        statsService.getObject().watch();
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Department department) {
+        statsService.getObject().departmentChanged(department.getId());
+    }
+}
@@ -0,0 +1,30 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.service.AfterCommit;
+import com.dhami.hospital.management.System.service.DirectorySearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+// keeps the doctor search index (DirectorySearchIndex) in sync with Doctor writes, applied after commit
+@RequiredArgsConstructor
+public class DoctorSearchListener {
+
+    private final DirectorySearchIndex index;
+
+    @PostPersist
+    @PostUpdate
+    public void written(Doctor doctor) {
+        SearchHit hit = new SearchHit(doctor.getId(), doctor.getName(), doctor.getSpecialization());
+        AfterCommit.run(() -> index.doctors().put(hit));
+    }
+
+    @PostRemove
+    public void removed(Doctor doctor) {
+        Long doctorId = doctor.getId();
+        AfterCommit.run(() -> index.doctors().remove(doctorId));
+    }
+}
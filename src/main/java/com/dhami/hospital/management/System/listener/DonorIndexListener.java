@@ -0,0 +1,30 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.service.AfterCommit;
+import com.dhami.hospital.management.System.service.DonorIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+// keeps the blood group / birth date bitmaps (DonorIndex) in sync with Patient writes, applied after commit
+@RequiredArgsConstructor
+public class DonorIndexListener {
+
+    private final DonorIndex index;
+
+    @PostPersist
+    @PostUpdate
+    public void written(Patient patient) {
+        DonorProfile profile = new DonorProfile(patient.getId(), patient.getBloodGroup(), patient.getBirthDate());
+        AfterCommit.run(() -> index.put(profile));
+    }
+
+    @PostRemove
+    public void removed(Patient patient) {
+        Long patientId = patient.getId();
+        AfterCommit.run(() -> index.remove(patientId));
+    }
+}
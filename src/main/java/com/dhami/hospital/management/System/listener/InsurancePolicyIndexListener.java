@@ -0,0 +1,32 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.dto.InsurancePolicyValidity;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.service.AfterCommit;
+import com.dhami.hospital.management.System.service.InsurancePolicyIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+// keeps InsurancePolicyIndex in sync with Insurance writes, applied after commit
+// hibernate creates entity listeners through the spring bean container -> the index singleton is injected
+@RequiredArgsConstructor
+public class InsurancePolicyIndexListener {
+
+    private final InsurancePolicyIndex index;
+
+    @PostPersist
+    @PostUpdate
+    public void written(Insurance insurance) {
+        InsurancePolicyValidity validity =
+                new InsurancePolicyValidity(insurance.getId(), insurance.getPolicyNumber(), insurance.getValidUntil());
+        AfterCommit.run(() -> index.put(validity));
+    }
+
+    @PostRemove
+    public void removed(Insurance insurance) {
+        Long insuranceId = insurance.getId();
+        AfterCommit.run(() -> index.remove(insuranceId));
+    }
+}
@@ -0,0 +1,30 @@
+package com.dhami.hospital.management.System.listener;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.service.AfterCommit;
+import com.dhami.hospital.management.System.service.DirectorySearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+// keeps the patient search index (DirectorySearchIndex) in sync with Patient writes, applied after commit
+@RequiredArgsConstructor
+public class PatientSearchListener {
+
+    private final DirectorySearchIndex index;
+
+    @PostPersist
+    @PostUpdate
+    public void written(Patient patient) {
+        SearchHit hit = new SearchHit(patient.getId(), patient.getName(), patient.getEmail());
+        AfterCommit.run(() -> index.patients().put(hit));
+    }
+
+    @PostRemove
+    public void removed(Patient patient) {
+        Long patientId = patient.getId();
+        AfterCommit.run(() -> index.patients().remove(patientId));
+    }
+}
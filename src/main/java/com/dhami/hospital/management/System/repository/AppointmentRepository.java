@@ -1,7 +1,126 @@
 package com.dhami.hospital.management.System.repository;
 
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.AppointmentSlotView;
+import com.dhami.hospital.management.System.dto.BookedSlot;
+import com.dhami.hospital.management.System.dto.PatientAppointmentRow;
 import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Doctor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/*
+appointment is range partitioned by month on appointment_time (AppointmentPartitionMaintenance)
+-> time filters are plain ranges on a.appointmentTime with parameters (no function around the column),
+   postgres then only reads the monthly partitions the range covers
+-> queries without a time range (findById, a patient's full history) visit every partition through its own index
+ */
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    // keyset (seek) pagination on (appointmentTime, id)
+    @EntityGraph(Appointment.GRAPH_WITH_REASON)
+    Window<Appointment> findAllByOrderByAppointmentTimeAscIdAsc(ScrollPosition position, Limit limit);
+
+    // projection -> one select with joins, doctor / patient are never loaded as entities
+    @Query("SELECT new com.dhami.hospital.management.System.dto.AppointmentSlotView(a.id, a.appointmentTime, d.name, p.name) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+            "WHERE a.appointmentTime >= :from AND a.appointmentTime < :to ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSlotView> findSlotViewsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.AppointmentSlotView(a.id, a.appointmentTime, d.name, p.name) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+            "WHERE d.id = :doctorId ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSlotView> findSlotViewsByDoctorId(@Param("doctorId") Long doctorId);
+
+    // doctor agenda -> range scan on the (doctor_id, appointment_time) index of unique_doctor_appointment_time
+    @EntityGraph(Appointment.GRAPH_WITH_REASON)
+    @Query("SELECT a FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :from AND a.appointmentTime < :to " +
+            "ORDER BY a.appointmentTime")
+    List<Appointment> findDoctorAgenda(@Param("doctorId") Long doctorId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    // upcoming appointments of a patient -> idx_appointment_patient_time, already in order, stops after limit rows
+    @EntityGraph(Appointment.GRAPH_WITH_REASON)
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentTime >= :from " +
+            "ORDER BY a.appointmentTime")
+    List<Appointment> findUpcomingForPatient(@Param("patientId") Long patientId,
+                                             @Param("from") LocalDateTime from,
+                                             Limit limit);
+
+    // scheduling -> rebuild of the in-memory availability index
+    @Query("SELECT new com.dhami.hospital.management.System.dto.BookedSlot(a.id, a.doctor.id, a.appointmentTime) " +
+            "FROM Appointment a WHERE a.appointmentTime >= :from")
+    List<BookedSlot> findBookedSlotsFrom(@Param("from") LocalDateTime from);
+
+    // bulk writes -> upcoming appointments they touch, for the availability index and the outbox events
+    @Query("SELECT new com.dhami.hospital.management.System.dto.AppointmentResponse(a.id, a.appointmentTime, a.reason, a.patient.id, a.doctor.id) " +
+            "FROM Appointment a WHERE a.patient.id IN :patientIds AND a.appointmentTime >= :from ORDER BY a.appointmentTime")
+    List<AppointmentResponse> findUpcomingByPatientIds(@Param("patientIds") Collection<Long> patientIds,
+                                                       @Param("from") LocalDateTime from);
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.AppointmentResponse(a.id, a.appointmentTime, a.reason, a.patient.id, a.doctor.id) " +
+            "FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :from ORDER BY a.appointmentTime")
+    List<AppointmentResponse> findUpcomingByDoctorId(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from);
+
+    // any appointment of the doctor starting inside (from, to) -> overlaps the requested slot
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentTime > :from AND a.appointmentTime < :to")
+    boolean existsOverlapping(@Param("doctorId") Long doctorId,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+
+    // reschedule -> same check, the appointment being moved does not block itself
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId AND a.id <> :appointmentId " +
+            "AND a.appointmentTime > :from AND a.appointmentTime < :to")
+    boolean existsOverlappingOther(@Param("doctorId") Long doctorId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("appointmentId") Long appointmentId);
+
+    // export -> appointment history of a chunk of patients in one select
+    @Query("SELECT new com.dhami.hospital.management.System.dto.PatientAppointmentRow(a.patient.id, a.appointmentTime, a.reason, a.doctor.id) " +
+            "FROM Appointment a WHERE a.patient.id IN :patientIds ORDER BY a.patient.id, a.appointmentTime")
+    List<PatientAppointmentRow> findHistoryRowsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    // reassign -> an appointment of the source doctor overlapping one of the target doctor, same window as existsOverlapping
+    // (equal starts included, those would also break unique_doctor_appointment_time)
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :fromDoctorId AND EXISTS (" +
+            "SELECT b.id FROM Appointment b WHERE b.doctor.id = :toDoctorId " +
+            "AND b.appointmentTime > a.appointmentTime - :slotMinutes minute AND b.appointmentTime < a.appointmentTime + :slotMinutes minute)")
+    boolean existsOverlappingForDoctors(@Param("fromDoctorId") Long fromDoctorId,
+                                        @Param("toDoctorId") Long toDoctorId,
+                                        @Param("slotMinutes") long slotMinutes);
+
+    /*
+    bulk statements -> one set based UPDATE / DELETE, no Appointment is loaded
+    flush first (pending changes must reach the db before it), clear after (managed copies would be stale)
+    UPDATE VERSIONED also bumps the version, an edit that loaded an appointment before the bulk update fails on commit
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Appointment a WHERE a.appointmentTime < :cutoff")
+    int deleteAllBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED Appointment a SET a.doctor = :toDoctor WHERE a.doctor.id = :fromDoctorId")
+    int reassignDoctor(@Param("fromDoctorId") Long fromDoctorId, @Param("toDoctor") Doctor toDoctor);
+
+    // department stats -> doctors whose departments a bulk delete of these patients' appointments changes
+    @Query("SELECT DISTINCT a.doctor.id FROM Appointment a WHERE a.patient.id IN :patientIds")
+    List<Long> findDoctorIdsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Appointment a WHERE a.patient.id IN :patientIds")
+    int deleteAllByPatientIds(@Param("patientIds") Collection<Long> patientIds);
 }
@@ -1,7 +1,26 @@
 package com.dhami.hospital.management.System.repository;
 
 import com.dhami.hospital.management.System.entity.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Department> findAllByOrderByNameAsc();
+
+    @Query("SELECT d.id FROM Department d")
+    List<Long> findAllIds();
+
+    // departments whose stats depend on these doctors (member or head doctor)
+    @Query("SELECT DISTINCT d.id FROM Department d LEFT JOIN d.doctors doctor " +
+            "WHERE doctor.id IN :doctorIds OR d.headDoctor.id IN :doctorIds")
+    List<Long> findIdsByDoctorIds(@Param("doctorIds") Collection<Long> doctorIds);
 }
@@ -0,0 +1,95 @@
+package com.dhami.hospital.management.System.repository;
+
+import com.dhami.hospital.management.System.dto.DepartmentDayCount;
+import com.dhami.hospital.management.System.dto.DepartmentStatsView;
+import com.dhami.hospital.management.System.entity.DepartmentStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/*
+department dashboard read model (department_stats + department_daily_stats)
+native statements declare the table they touch (HINT_NATIVE_SPACES),
+otherwise hibernate would invalidate every second level cache region after each of them
+ */
+public interface DepartmentStatsRepository extends JpaRepository<DepartmentStats, Long> {
+
+    // dashboard -> one select, one row per department
+    @Query("SELECT new com.dhami.hospital.management.System.dto.DepartmentStatsView(s.departmentId, s.departmentName, " +
+            "s.doctorCount, s.headDoctorId, s.headDoctorName, s.headDoctorAppointmentCount, s.appointmentCount, " +
+            "COALESCE(t.appointmentCount, 0)) " +
+            "FROM DepartmentStats s LEFT JOIN DepartmentDailyStats t " +
+            "ON t.id.departmentId = s.departmentId AND t.id.appointmentDate = :today " +
+            "ORDER BY s.departmentName")
+    List<DepartmentStatsView> findDashboard(@Param("today") LocalDate today);
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.DepartmentDayCount(t.id.appointmentDate, t.appointmentCount) " +
+            "FROM DepartmentDailyStats t WHERE t.id.departmentId = :departmentId " +
+            "AND t.id.appointmentDate BETWEEN :from AND :to AND t.appointmentCount > 0 ORDER BY t.id.appointmentDate")
+    List<DepartmentDayCount> findDailyCounts(@Param("departmentId") Long departmentId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    // incremental maintenance -> +delta / -delta for every department of the doctor
+    @Modifying
+    @Query("UPDATE DepartmentStats s SET s.appointmentCount = s.appointmentCount + :delta " +
+            "WHERE s.departmentId IN (SELECT d.id FROM Department d JOIN d.doctors doctor WHERE doctor.id = :doctorId)")
+    int addAppointments(@Param("doctorId") Long doctorId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE DepartmentStats s SET s.headDoctorAppointmentCount = s.headDoctorAppointmentCount + :delta " +
+            "WHERE s.headDoctorId = :doctorId")
+    int addHeadDoctorAppointments(@Param("doctorId") Long doctorId, @Param("delta") long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_daily_stats"))
+    @Query(nativeQuery = true, value = "INSERT INTO department_daily_stats (department_id, appointment_date, appointment_count) " +
+            "SELECT dd.dpt_id, :appointmentDate, :delta FROM my_dpt_doctors dd WHERE dd.doctor_id = :doctorId " +
+            "ON CONFLICT (department_id, appointment_date) DO UPDATE " +
+            "SET appointment_count = department_daily_stats.appointment_count + EXCLUDED.appointment_count")
+    int addDailyAppointments(@Param("doctorId") Long doctorId,
+                             @Param("appointmentDate") LocalDate appointmentDate,
+                             @Param("delta") long delta);
+
+    // full recompute of some departments -> delete + insert ... select, nothing is loaded into memory
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_daily_stats"))
+    @Query(nativeQuery = true, value = "DELETE FROM department_daily_stats WHERE department_id IN (:departmentIds)")
+    int deleteDailyStats(@Param("departmentIds") Collection<Long> departmentIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_daily_stats"))
+    @Query(nativeQuery = true, value = "INSERT INTO department_daily_stats (department_id, appointment_date, appointment_count) " +
+            "SELECT dd.dpt_id, CAST(a.appointment_time AS date), COUNT(*) " +
+            "FROM my_dpt_doctors dd JOIN appointment a ON a.doctor_id = dd.doctor_id " +
+            "WHERE dd.dpt_id IN (:departmentIds) " +
+            "GROUP BY dd.dpt_id, CAST(a.appointment_time AS date)")
+    int insertDailyStats(@Param("departmentIds") Collection<Long> departmentIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_stats"))
+    @Query(nativeQuery = true, value = "DELETE FROM department_stats WHERE department_id IN (:departmentIds)")
+    int deleteStats(@Param("departmentIds") Collection<Long> departmentIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_stats"))
+    @Query(nativeQuery = true, value = "INSERT INTO department_stats (department_id, department_name, doctor_count, " +
+            "head_doctor_id, head_doctor_name, appointment_count, head_doctor_appointment_count, refreshed_at) " +
+            "SELECT d.id, d.name, " +
+            "(SELECT COUNT(*) FROM my_dpt_doctors dd WHERE dd.dpt_id = d.id), " +
+            "h.id, h.name, " +
+            "(SELECT COUNT(*) FROM my_dpt_doctors dd JOIN appointment a ON a.doctor_id = dd.doctor_id WHERE dd.dpt_id = d.id), " +
+            "(SELECT COUNT(*) FROM appointment a WHERE a.doctor_id = d.head_doctor_id), " +
+            "CURRENT_TIMESTAMP " +
+            "FROM department d LEFT JOIN doctor h ON h.id = d.head_doctor_id " +
+            "WHERE d.id IN (:departmentIds)")
+    int insertStats(@Param("departmentIds") Collection<Long> departmentIds);
+}
@@ -1,7 +1,31 @@
 package com.dhami.hospital.management.System.repository;
 
+import com.dhami.hospital.management.System.dto.SearchHit;
 import com.dhami.hospital.management.System.entity.Doctor;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+
+    // query cache -> ids come from the query region, doctors from the "doctor" region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Doctor> findBySpecialization(String specialization);
+
+    // search index rebuild
+    @Query("SELECT new com.dhami.hospital.management.System.dto.SearchHit(d.id, d.name, d.specialization) FROM Doctor d")
+    List<SearchHit> findAllSearchHits();
+
+    // SELECT ... FOR UPDATE on the doctor row -> bookings for the same doctor are serialized
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> findByIdForUpdate(@Param("id") Long id);
 }
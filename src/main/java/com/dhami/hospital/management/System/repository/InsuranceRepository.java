@@ -1,8 +1,69 @@
 package com.dhami.hospital.management.System.repository;
 
+import com.dhami.hospital.management.System.dto.InsurancePolicyValidity;
 import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.InsuranceStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
+
+    Optional<Insurance> findByPolicyNumber(String policyNumber);
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.InsurancePolicyValidity(i.id, i.policyNumber, i.validUntil) " +
+            "FROM Insurance i")
+    List<InsurancePolicyValidity> findAllPolicyValidities();
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.InsurancePolicyValidity(i.id, i.policyNumber, i.validUntil) " +
+            "FROM Insurance i WHERE i.policyNumber = :policyNumber")
+    Optional<InsurancePolicyValidity> findValidityByPolicyNumber(@Param("policyNumber") String policyNumber);
+
+    // range scans on idx_insurance_valid_until, one chunk at a time
+    @Query("SELECT i.id FROM Insurance i WHERE i.validUntil < :date AND i.status IN :statuses ORDER BY i.validUntil, i.id")
+    List<Long> findIdsValidBefore(@Param("date") LocalDate date,
+                                  @Param("statuses") Collection<InsuranceStatus> statuses,
+                                  Limit limit);
+
+    @Query("SELECT i.id FROM Insurance i WHERE i.validUntil BETWEEN :from AND :to AND i.status IN :statuses " +
+            "ORDER BY i.validUntil, i.id")
+    List<Long> findIdsValidBetween(@Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   @Param("statuses") Collection<InsuranceStatus> statuses,
+                                   Limit limit);
+
+    /*
+    bulk update of a chunk found by the select above, no entities loaded (hibernate invalidates the insurance cache region)
+    the select's predicate is repeated -> a renewal that committed between the select and the update is skipped
+    (postgres re-checks the WHERE on the latest row version once a concurrent writer's lock is released)
+    VERSIONED -> a renewal that read the policy before this update and commits after it gets a version conflict
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED Insurance i SET i.status = :status " +
+            "WHERE i.id IN :ids AND i.validUntil < :date AND i.status IN :statuses")
+    int updateStatusValidBefore(@Param("ids") Collection<Long> ids,
+                                @Param("date") LocalDate date,
+                                @Param("statuses") Collection<InsuranceStatus> statuses,
+                                @Param("status") InsuranceStatus status);
+
+    @Modifying
+    @Query("UPDATE VERSIONED Insurance i SET i.status = :status " +
+            "WHERE i.id IN :ids AND i.validUntil BETWEEN :from AND :to AND i.status IN :statuses")
+    int updateStatusValidBetween(@Param("ids") Collection<Long> ids,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to,
+                                 @Param("statuses") Collection<InsuranceStatus> statuses,
+                                 @Param("status") InsuranceStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Insurance i WHERE i.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
 }
 //jpa buddy plugin
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.dhami.hospital.management.System.repository;
+
+import com.dhami.hospital.management.System.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /*
+    relay -> oldest undelivered events, FOR UPDATE
+    a second relay (other instance) waits here until the first one committed and then sees the next events,
+    so events are delivered one batch after the other, in id order = in order per appointment (see OutboxEvent)
+    appointments with an event still backing off are left out entirely (partial index idx_outbox_event_backing_off)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.dead = false AND e.aggregateId NOT IN (" +
+            "SELECT b.aggregateId FROM OutboxEvent b WHERE b.dead = false AND b.nextAttemptAt > :now) ORDER BY e.id")
+    List<OutboxEvent> findNextBatchForUpdate(@Param("now") LocalDateTime now, Limit limit);
+
+    long countByDeadFalse();
+
+    // flush first -> attempts / backoff of a failed event in the same batch are written before the managed copies go
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+}
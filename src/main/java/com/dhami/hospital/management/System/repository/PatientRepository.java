@@ -1,12 +1,103 @@
 package com.dhami.hospital.management.System.repository;
 
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.BloodGroup;
 import com.dhami.hospital.management.System.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+
+// + upsertAll (PatientUpsertRepository): multi-row INSERT ... ON CONFLICT for re-imported feeds
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientUpsertRepository {
+
+    // fetch plans -> each one is a single select (joins instead of N+1 lazy loads)
+    @EntityGraph(Patient.GRAPH_SUMMARY)
+    @Query("SELECT p FROM Patient p")
+    List<Patient> findAllSummary();
+
+    @EntityGraph(Patient.GRAPH_WITH_APPOINTMENTS)
+    @Query("SELECT p FROM Patient p")
+    List<Patient> findAllWithAppointments();
+
+    @EntityGraph(Patient.GRAPH_WITH_APPOINTMENTS_AND_DOCTOR)
+    @Query("SELECT p FROM Patient p")
+    List<Patient> findAllWithAppointmentsAndDoctor();
+
+    @EntityGraph(Patient.GRAPH_WITH_INSURANCE)
+    @Query("SELECT p FROM Patient p")
+    List<Patient> findAllWithInsurance();
+
+    @EntityGraph(Patient.GRAPH_WITH_APPOINTMENTS_AND_DOCTOR)
+    @Query("SELECT p FROM Patient p WHERE p.id = :id")
+    Optional<Patient> findWithAppointmentsAndDoctorById(@Param("id") Long id);
+
+    // keyset (seek) pagination -> WHERE (birthDate, id) > (last seen) instead of OFFSET, no count(*)
+    // type -> Patient.class for entities or a projection like PatientSummary.class
+    <T> Window<T> findAllByOrderByIdAsc(ScrollPosition position, Limit limit, Class<T> type);
+
+    // birth date order = two scrolls one after the other (PatientService), a NULL key would end the seek
+    <T> Window<T> findAllByBirthDateNotNullOrderByBirthDateAscIdAsc(ScrollPosition position, Limit limit, Class<T> type); // idx_patient_birth_date
+
+    <T> Window<T> findAllByBirthDateNullOrderByIdAsc(ScrollPosition position, Limit limit, Class<T> type); // idx_patient_no_birth_date
+
+    boolean existsByBirthDateNull();
+
+    // lower(email) matches the expression of idx_patient_email_lower (derived IgnoreCase queries use upper())
+    @Query("SELECT p FROM Patient p WHERE lower(p.email) = lower(:email)")
+    Optional<Patient> findByEmailIgnoreCase(@Param("email") String email);
+
+    // projections -> constructor expression, only the 4 columns are selected, results are not managed entities
+    @Query("SELECT new com.dhami.hospital.management.System.dto.PatientSummary(p.id, p.name, p.birthDate, p.bloodGroup) " +
+            "FROM Patient p ORDER BY p.id")
+    List<PatientSummary> findAllPatientSummaries();
+
+    // search index rebuild
+    @Query("SELECT new com.dhami.hospital.management.System.dto.SearchHit(p.id, p.name, p.email) FROM Patient p")
+    List<SearchHit> findAllSearchHits();
+
+    // donor index rebuild, patients without a blood group are never donors
+    @Query("SELECT new com.dhami.hospital.management.System.dto.DonorProfile(p.id, p.bloodGroup, p.birthDate) " +
+            "FROM Patient p WHERE p.bloodGroup IS NOT NULL")
+    List<DonorProfile> findAllDonorProfiles();
+
+    @Query("SELECT new com.dhami.hospital.management.System.dto.PatientSummary(p.id, p.name, p.birthDate, p.bloodGroup) " +
+            "FROM Patient p WHERE p.bloodGroup = :bloodGroup ORDER BY p.id")
+    List<PatientSummary> findPatientSummariesByBloodGroup(@Param("bloodGroup") BloodGroup bloodGroup);
+
+    // export -> server side cursor (needs an open transaction), rows are read fetchSize at a time, no snapshots kept
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Patient p LEFT JOIN FETCH p.insurance ORDER BY p.id")
+    Stream<Patient> streamAllWithInsurance();
+
+    // bulk delete -> insurance ids are read first, the delete bypasses orphanRemoval
+    @Query("SELECT p.insurance.id FROM Patient p WHERE p.id IN :ids AND p.insurance IS NOT NULL")
+    List<Long> findInsuranceIdsByPatientIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Patient p WHERE p.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
 }
 
 /*
@@ -0,0 +1,13 @@
+package com.dhami.hospital.management.System.repository;
+
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult;
+
+import java.util.List;
+
+// fragment of PatientRepository, implemented with native multi-row upserts in PatientUpsertRepositoryImpl
+public interface PatientUpsertRepository {
+
+    // one result per row, same order; the appointments of the rows are not touched
+    List<PatientUpsertResult> upsertAll(List<PatientImportRow> rows);
+}
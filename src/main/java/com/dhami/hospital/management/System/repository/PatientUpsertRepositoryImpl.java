@@ -0,0 +1,255 @@
+package com.dhami.hospital.management.System.repository;
+
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult.Outcome;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+re-import of a patient feed without a select + insert / update round trip per row
+-> one statement per STATEMENT_ROWS rows: INSERT ... SELECT FROM (VALUES (..), (..), ..) ON CONFLICT DO UPDATE
+-> insurance first, keyed on policy_number, the patient rows then point at the returned insurance ids
+-> patient keyed on unique_patient_name_birthdate (name, birth_date)
+-> DO UPDATE ... WHERE (..) IS DISTINCT FROM (..): identical rows are not rewritten (no dead tuple, no version bump)
+   and not RETURNed, the outer select finds their id in the statement's snapshot -> UNCHANGED
+   (LATERAL ... LIMIT 1 -> one unique index probe per row; a plain join, or a LATERAL the planner can flatten,
+   hashes the whole table)
+-> a RETURNed row with xmax = 0 was inserted, an updated one carries the id of the updating transaction in xmax
+-> a row without insurance keeps the patient's current policy, a different policy replaces it and the old
+   insurance row is deleted (same as orphanRemoval on Patient.insurance)
+-> version is bumped on update, so a concurrent JPA edit of the same patient / policy fails its version check
+-> ids come from nextval() per row, every row takes a whole block of the pooled sequence -> never collides with
+   the blocks hibernate hands out
+the same key twice in one call -> the later row wins, both rows get its result
+an email that belongs to another patient (in the table, or to an earlier key of the same call) would violate
+patient_email_key and abort the whole statement -> those rows are looked up first and skipped with EMAIL_TAKEN
+(neither the patient nor its policy is written); an email taken by a concurrent transaction in between still fails
+the statement, the caller retries the batch
+plain jdbc, hibernate does not see these writes: pending changes are flushed first and the persistence context is
+cleared afterwards; second level cache + in-memory indexes are left to the caller (PatientService.upsertPatients)
+ */
+@RequiredArgsConstructor
+public class PatientUpsertRepositoryImpl implements PatientUpsertRepository {
+
+    // 6 parameters per patient row, far below the 65535 bind parameters postgres allows per statement
+    private static final int STATEMENT_ROWS = 1000;
+
+    private static final String INSURANCE_UPSERT =
+            "WITH v (policy_number, provider, valid_until) AS (VALUES %s), " +
+            "upserted AS (INSERT INTO insurance AS i (id, version, policy_number, provider, valid_until, status, created_at) " +
+            "SELECT nextval('insurance_seq'), 0, v.policy_number, v.provider, v.valid_until, 'ACTIVE', localtimestamp FROM v " +
+            "ON CONFLICT (policy_number) DO UPDATE SET provider = EXCLUDED.provider, valid_until = EXCLUDED.valid_until, " +
+            // a later validUntil is a renewal -> active again (InsuranceService.renew), the nightly sweep handles the rest
+            "status = CASE WHEN EXCLUDED.valid_until > i.valid_until THEN 'ACTIVE' ELSE i.status END, version = i.version + 1 " +
+            "WHERE (i.provider, i.valid_until) IS DISTINCT FROM (EXCLUDED.provider, EXCLUDED.valid_until) " +
+            "RETURNING i.id, i.policy_number, i.xmax = 0 AS inserted) " +
+            "SELECT v.policy_number, COALESCE(u.id, existing.id) AS id, u.inserted FROM v " +
+            "LEFT JOIN upserted u ON u.policy_number = v.policy_number " +
+            "LEFT JOIN LATERAL (SELECT id FROM insurance WHERE policy_number = v.policy_number LIMIT 1) existing ON true";
+    private static final String INSURANCE_VALUES = "(?, ?, CAST(? AS date))";
+
+    private static final String PATIENT_UPSERT =
+            "WITH v (name, birth_date, email, gender, blood_group, insurance_id) AS (VALUES %s), " +
+            "upserted AS (INSERT INTO patient AS p (id, version, name, birth_date, email, gender, blood_group, patient_insurance_id) " +
+            "SELECT nextval('patient_seq'), 0, v.name, v.birth_date, v.email, v.gender, v.blood_group, v.insurance_id FROM v " +
+            "ON CONFLICT (name, birth_date) DO UPDATE SET email = EXCLUDED.email, gender = EXCLUDED.gender, " +
+            "blood_group = EXCLUDED.blood_group, " +
+            "patient_insurance_id = COALESCE(EXCLUDED.patient_insurance_id, p.patient_insurance_id), version = p.version + 1 " +
+            "WHERE (p.email, p.gender, p.blood_group, p.patient_insurance_id) IS DISTINCT FROM " +
+            "(EXCLUDED.email, EXCLUDED.gender, EXCLUDED.blood_group, COALESCE(EXCLUDED.patient_insurance_id, p.patient_insurance_id)) " +
+            "RETURNING p.id, p.name, p.birth_date, p.xmax = 0 AS inserted) " +
+            "SELECT v.name, v.birth_date, COALESCE(u.id, existing.id) AS id, u.inserted, " +
+            "existing.patient_insurance_id AS previous_insurance_id FROM v " +
+            "LEFT JOIN upserted u ON u.name = v.name AND u.birth_date = v.birth_date " +
+            "LEFT JOIN LATERAL (SELECT id, patient_insurance_id FROM patient " +
+            "WHERE name = v.name AND birth_date = v.birth_date LIMIT 1) existing ON true";
+    private static final String PATIENT_VALUES = "(?, CAST(? AS date), ?, ?, ?, CAST(? AS bigint))";
+
+    private record PatientKey(String name, LocalDate birthDate) {
+    }
+
+    private record Upserted(Long id, Outcome outcome, Long previousInsuranceId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<PatientUpsertResult> upsertAll(List<PatientImportRow> rows) {
+        entityManager.flush();
+        List<PatientUpsertResult> results = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += STATEMENT_ROWS) {
+            results.addAll(upsertChunk(rows.subList(from, Math.min(rows.size(), from + STATEMENT_ROWS))));
+        }
+        entityManager.clear();
+        return results;
+    }
+
+    private List<PatientUpsertResult> upsertChunk(List<PatientImportRow> rows) {
+        Map<PatientKey, PatientImportRow> patients = new LinkedHashMap<>();
+        for (PatientImportRow row : rows) {
+            patients.put(new PatientKey(row.name(), row.birthDate()), row);
+        }
+        Set<PatientKey> emailTaken = emailTaken(patients);
+        patients.keySet().removeAll(emailTaken);
+        Map<String, PatientImportRow.InsuranceRow> policies = new LinkedHashMap<>();
+        for (PatientImportRow row : rows) {
+            if (!emailTaken.contains(new PatientKey(row.name(), row.birthDate()))
+                    && row.insurance() != null && row.insurance().policyNumber() != null) {
+                policies.put(row.insurance().policyNumber(), row.insurance());
+            }
+        }
+
+        Map<String, Upserted> insurances = upsertInsurances(policies.values());
+        Map<PatientKey, Upserted> upserted = upsertPatients(patients.values(), insurances);
+        deleteReplacedInsurances(patients, upserted, insurances);
+
+        List<PatientUpsertResult> results = new ArrayList<>(rows.size());
+        for (PatientImportRow row : rows) {
+            if (emailTaken.contains(new PatientKey(row.name(), row.birthDate()))) {
+                results.add(new PatientUpsertResult(null, Outcome.EMAIL_TAKEN, null, null, null));
+                continue;
+            }
+            Upserted patient = upserted.get(new PatientKey(row.name(), row.birthDate()));
+            Upserted insurance = row.insurance() == null ? null : insurances.get(row.insurance().policyNumber());
+            results.add(new PatientUpsertResult(patient.id(), patient.outcome(),
+                    insurance == null ? null : insurance.id(), insurance == null ? null : insurance.outcome(),
+                    replaced(patient, insurance)));
+        }
+        return results;
+    }
+
+    // keys whose email is already used by a different patient, or by an earlier key of this chunk
+    private Set<PatientKey> emailTaken(Map<PatientKey, PatientImportRow> patients) {
+        Map<String, PatientKey> owners = new HashMap<>();
+        jdbcTemplate.query("SELECT email, name, birth_date FROM patient WHERE email IN (" + placeholders(patients.size()) + ")",
+                rs -> {
+                    owners.put(rs.getString("email"), new PatientKey(rs.getString("name"), rs.getObject("birth_date", LocalDate.class)));
+                },
+                patients.values().stream().map(PatientImportRow::email).toArray());
+        Set<PatientKey> taken = new HashSet<>();
+        for (Map.Entry<PatientKey, PatientImportRow> patient : patients.entrySet()) {
+            PatientKey owner = owners.putIfAbsent(patient.getValue().email(), patient.getKey());
+            if (owner != null && !owner.equals(patient.getKey())) {
+                taken.add(patient.getKey());
+            }
+        }
+        return taken;
+    }
+
+    private Map<String, Upserted> upsertInsurances(Collection<PatientImportRow.InsuranceRow> policies) {
+        if (policies.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> parameters = new ArrayList<>(policies.size() * 3);
+        for (PatientImportRow.InsuranceRow policy : policies) {
+            parameters.add(policy.policyNumber());
+            parameters.add(policy.provider());
+            parameters.add(policy.validUntil());
+        }
+        Map<String, Upserted> result = new HashMap<>();
+        jdbcTemplate.query(INSURANCE_UPSERT.formatted(values(INSURANCE_VALUES, policies.size())),
+                rs -> {
+                    result.put(rs.getString("policy_number"),
+                            new Upserted(rs.getObject("id", Long.class), outcome(rs.getObject("inserted", Boolean.class)), null));
+                },
+                parameters.toArray());
+        // inserted by a concurrent transaction after this statement's snapshot -> not in "existing", look again
+        List<String> missing = result.entrySet().stream().filter(entry -> entry.getValue().id() == null).map(Map.Entry::getKey).toList();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query("SELECT id, policy_number FROM insurance WHERE policy_number IN (" + placeholders(missing.size()) + ")",
+                    rs -> {
+                        result.put(rs.getString("policy_number"), new Upserted(rs.getLong("id"), Outcome.UNCHANGED, null));
+                    },
+                    missing.toArray());
+        }
+        return result;
+    }
+
+    private Map<PatientKey, Upserted> upsertPatients(Collection<PatientImportRow> rows, Map<String, Upserted> insurances) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> parameters = new ArrayList<>(rows.size() * 6);
+        for (PatientImportRow row : rows) {
+            parameters.add(row.name());
+            parameters.add(row.birthDate());
+            parameters.add(row.email());
+            parameters.add(row.gender() == null ? null : row.gender().name());
+            parameters.add(row.bloodGroup() == null ? null : row.bloodGroup().name());
+            Upserted insurance = row.insurance() == null ? null : insurances.get(row.insurance().policyNumber());
+            parameters.add(insurance == null ? null : insurance.id());
+        }
+        Map<PatientKey, Upserted> result = new HashMap<>();
+        jdbcTemplate.query(PATIENT_UPSERT.formatted(values(PATIENT_VALUES, rows.size())),
+                rs -> {
+                    result.put(new PatientKey(rs.getString("name"), rs.getObject("birth_date", LocalDate.class)),
+                            new Upserted(rs.getObject("id", Long.class), outcome(rs.getObject("inserted", Boolean.class)),
+                                    rs.getObject("previous_insurance_id", Long.class)));
+                },
+                parameters.toArray());
+        for (Map.Entry<PatientKey, Upserted> entry : result.entrySet()) {
+            if (entry.getValue().id() == null) {
+                Long id = jdbcTemplate.queryForObject("SELECT id FROM patient WHERE name = ? AND birth_date = ?",
+                        Long.class, entry.getKey().name(), entry.getKey().birthDate());
+                entry.setValue(new Upserted(id, Outcome.UNCHANGED, null));
+            }
+        }
+        return result;
+    }
+
+    // patients that moved to a new policy leave their old insurance row behind -> delete it, unless another row took it over
+    private void deleteReplacedInsurances(Map<PatientKey, PatientImportRow> rows, Map<PatientKey, Upserted> patients,
+                                          Map<String, Upserted> insurances) {
+        List<Long> replaced = new ArrayList<>();
+        for (Map.Entry<PatientKey, PatientImportRow> row : rows.entrySet()) {
+            PatientImportRow.InsuranceRow policy = row.getValue().insurance();
+            Long previous = replaced(patients.get(row.getKey()), policy == null ? null : insurances.get(policy.policyNumber()));
+            if (previous != null) {
+                replaced.add(previous);
+            }
+        }
+        if (!replaced.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM insurance i WHERE i.id IN (" + placeholders(replaced.size()) + ") " +
+                    "AND NOT EXISTS (SELECT 1 FROM patient p WHERE p.patient_insurance_id = i.id)", replaced.toArray());
+        }
+    }
+
+    private static Long replaced(Upserted patient, Upserted insurance) {
+        if (insurance == null || patient.previousInsuranceId() == null || patient.previousInsuranceId().equals(insurance.id())) {
+            return null;
+        }
+        return patient.previousInsuranceId();
+    }
+
+    // inserted column: true -> inserted, false -> updated, null -> not touched by the upsert
+    private static Outcome outcome(Boolean inserted) {
+        if (inserted == null) {
+            return Outcome.UNCHANGED;
+        }
+        return inserted ? Outcome.INSERTED : Outcome.UPDATED;
+    }
+
+    private static String values(String row, int rows) {
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
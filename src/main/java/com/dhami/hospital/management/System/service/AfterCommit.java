@@ -0,0 +1,31 @@
+package com.dhami.hospital.management.System.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+in-memory indexes must only see committed data
+-> inside a transaction the action runs after commit (and never on rollback)
+-> outside of one it runs right away
+the entity listeners in listener/ apply every entity write to its index through here; the indexes
+(InsurancePolicyIndex, DirectorySearchIndex, DonorIndex) have no repository dependency on purpose:
+hibernate creates those listeners while the EntityManagerFactory is built
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
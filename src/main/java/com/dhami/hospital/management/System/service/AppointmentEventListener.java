@@ -0,0 +1,14 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+
+/*
+in-process consumer of appointment events (billing, reminders, ...), every bean implementing it is called by OutboxRelay
+-> runs on the relay thread in a transaction of its own per event (a @Transactional listener joins it), never in the booking request
+-> at-least-once: an event can arrive again (relay crash, a later listener failed), use eventId to ignore repeats
+-> throwing = not delivered, the event is retried with backoff and the later events of its appointment wait (order per appointment is kept)
+ */
+public interface AppointmentEventListener {
+
+    void onAppointmentEvent(long eventId, AppointmentEvent event);
+}
@@ -0,0 +1,41 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.entity.OutboxEvent;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Collection;
+
+/*
+write side of the outbox: one insert per event into outbox_event, batched with the appointment statements
+MANDATORY -> only inside the transaction that changes the appointment, both commit or neither does
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentOutbox {
+
+    static final String AGGREGATE_TYPE = "Appointment";
+
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(AppointmentEvent event) {
+        entityManager.persist(OutboxEvent.builder()
+                .aggregateType(AGGREGATE_TYPE)
+                .aggregateId(event.appointmentId())
+                .eventType(event.type().name())
+                .payload(jsonMapper.writeValueAsString(event))
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(Collection<AppointmentEvent> events) {
+        events.forEach(this::append);
+    }
+}
@@ -0,0 +1,156 @@
+package com.dhami.hospital.management.System.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+appointment is range partitioned by month on appointment_time (postgres declarative partitioning, see db/migration/V1__init_schema.sql)
+-> one partition per month: appointment_2025_07 holds [2025-07-01, 2025-08-01)
+-> queries with a range on appointment_time only touch the months they cover (partition pruning),
+   so "this week" stays a scan of one or two partitions no matter how much history there is
+-> appointment_default catches rows of months without a partition (imports of old history, bookings far ahead)
+maintenance (startup + nightly):
+-> the current month and months-ahead months get their partition, rows already sitting in the default
+   partition for that month are moved over in the same transaction
+-> months older than retention-months are detached: the rows leave the appointment table in one catalog
+   change (no DELETE, no vacuum), the detached table stays around as an archive until it is dropped by hand
+   its foreign keys to patient / doctor are dropped with the detach, otherwise deleting a patient or doctor
+   with archived appointments would fail; archive rows may point to patients / doctors that no longer exist
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "hospital.appointment-partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentPartitionMaintenance {
+
+    public static final String DEFAULT_PARTITION = "appointment_default";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("appointment_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DepartmentStatsService departmentStatsService;
+
+    @Value("${hospital.appointment-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 -> history is never detached
+    @Value("${hospital.appointment-partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hospital.appointment-partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!isPartitioned()) {
+            log.warn("appointment is not a partitioned table, partition maintenance skipped");
+            return;
+        }
+        YearMonth now = YearMonth.now();
+        int created = createPartitions(now, now.plusMonths(monthsAhead));
+        List<String> detached = retentionMonths > 0 ? detachBefore(now.minusMonths(retentionMonths)) : List.of();
+        log.info("appointment partitions: {} created, {} detached {}", created, detached.size(), detached);
+    }
+
+    // every month in [from, to] gets its partition, returns how many were new
+    public int createPartitions(YearMonth from, YearMonth to) {
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (createPartition(month)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /*
+    one month:
+    CREATE TABLE outside the tree -> move that month's rows out of the default partition -> ATTACH
+    (a plain CREATE ... PARTITION OF fails as soon as the default partition holds a row of that month)
+    attach builds the partition's copies of the appointment indexes / constraints
+     */
+    private boolean createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Integer moved = transactionTemplate.execute(status -> {
+            // every instance runs this on startup -> one at a time, the others then see the table
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('appointment_partitions'))");
+            if (tableExists(partition)) {
+                return null; // attached already, or a detached archive of that month -> left alone
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE appointment INCLUDING DEFAULTS)");
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE appointment_time >= ? AND appointment_time < ? RETURNING *) " +
+                    "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE appointment ATTACH PARTITION " + partition +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return rows;
+        });
+        if (moved == null) {
+            return false;
+        }
+        log.info("appointment partition {} created, {} rows moved from {}", partition, moved, DEFAULT_PARTITION);
+        return true;
+    }
+
+    // monthly partitions that end on or before the cutoff month leave the table, oldest first
+    public List<String> detachBefore(YearMonth cutoff) {
+        List<String> detached = new ArrayList<>();
+        for (String partition : attachedPartitions()) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(cutoff)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("ALTER TABLE appointment DETACH PARTITION " + partition);
+                    // the partition's copies of the foreign keys stay on the detached table
+                    for (String constraint : jdbcTemplate.queryForList("SELECT conname FROM pg_constraint " +
+                            "WHERE conrelid = to_regclass(?) AND contype = 'f'", String.class, partition)) {
+                        jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT \"" + constraint + "\"");
+                    }
+                    departmentStatsService.allChanged(); // same as a purge, the counts of those months are gone
+                });
+                detached.add(partition);
+            }
+        }
+        return detached;
+    }
+
+    public List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'appointment' ORDER BY c.relname", String.class);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "appointment_" + month.format(SUFFIX);
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'appointment')", Boolean.class));
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
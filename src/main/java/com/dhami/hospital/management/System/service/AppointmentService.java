@@ -0,0 +1,115 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.AppointmentSlotView;
+import com.dhami.hospital.management.System.dto.ScrollResponse;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorAvailabilityIndex availabilityIndex;
+    private final DepartmentStatsService departmentStatsService;
+    private final AppointmentOutbox outbox;
+
+    @Transactional(readOnly = true)
+    public ScrollResponse<AppointmentResponse> scrollAppointments(String token, int size) {
+        Window<Appointment> window = appointmentRepository.findAllByOrderByAppointmentTimeAscIdAsc(
+                ScrollTokens.decode(token), Limit.of(size));
+        return new ScrollResponse<>(window.map(AppointmentResponse::from).getContent(), ScrollTokens.next(window));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AppointmentSlotView> getSlotViews(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return appointmentRepository.findSlotViewsBetween(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AppointmentResponse> getDoctorAgenda(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return appointmentRepository.findDoctorAgenda(doctorId, from, to).stream().map(AppointmentResponse::from).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<AppointmentResponse> getUpcomingForPatient(Long patientId, int size) {
+        return appointmentRepository.findUpcomingForPatient(patientId, LocalDateTime.now(), Limit.of(size)).stream()
+                .map(AppointmentResponse::from)
+                .toList();
+    }
+
+    // one DELETE, history before the cutoff is gone without loading a single appointment
+    @Transactional
+    public int purgeBefore(LocalDateTime cutoff) {
+        if (cutoff == null || cutoff.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Purge cutoff must not be in the future");
+        }
+        int purged = appointmentRepository.deleteAllBefore(cutoff);
+        departmentStatsService.allChanged();
+        AfterCommit.run(() -> availabilityIndex.removeBefore(cutoff));
+        log.info("purged {} appointments before {}", purged, cutoff);
+        return purged;
+    }
+
+    /*
+    one UPDATE moves every appointment of a doctor to another one (+ one outbox event per upcoming appointment)
+    both doctor rows are locked (same lock as slot booking, ascending id order -> no deadlock between two reassigns)
+    so no booking can slip in between the conflict check and the update
+     */
+    @Transactional
+    public int reassignDoctor(Long fromDoctorId, Long toDoctorId) {
+        if (Objects.equals(fromDoctorId, toDoctorId)) {
+            throw new IllegalArgumentException("Source and target doctor must differ");
+        }
+        Doctor first = lockDoctor(Math.min(fromDoctorId, toDoctorId));
+        Doctor second = lockDoctor(Math.max(fromDoctorId, toDoctorId));
+        Doctor toDoctor = first.getId().equals(toDoctorId) ? first : second;
+
+        LocalDateTime conflict = availabilityIndex.firstConflict(fromDoctorId, toDoctorId);
+        // the index only knows upcoming slots and is not updated under these locks -> the database decides
+        if (conflict != null || appointmentRepository.existsOverlappingForDoctors(fromDoctorId, toDoctorId,
+                availabilityIndex.slotLength().toMinutes())) {
+            throw new SlotUnavailableException("Doctor " + toDoctorId + " already has appointments overlapping those of doctor "
+                    + fromDoctorId + (conflict == null ? "" : " (first at " + conflict + ")"));
+        }
+
+        List<AppointmentResponse> upcoming = appointmentRepository.findUpcomingByDoctorId(fromDoctorId, LocalDateTime.now());
+        int reassigned = appointmentRepository.reassignDoctor(fromDoctorId, toDoctor);
+        departmentStatsService.doctorsChanged(List.of(fromDoctorId, toDoctorId));
+        // past appointments keep their history, only upcoming ones are announced as moved
+        outbox.appendAll(upcoming.stream()
+                .map(appointment -> AppointmentEvent.moved(appointment, toDoctorId, appointment.appointmentTime()))
+                .toList());
+        AfterCommit.run(() -> availabilityIndex.moveAll(fromDoctorId, toDoctorId));
+        log.info("reassigned {} appointments from doctor {} to doctor {}", reassigned, fromDoctorId, toDoctorId);
+        return reassigned;
+    }
+
+    private Doctor lockDoctor(Long doctorId) {
+        return doctorRepository.findByIdForUpdate(doctorId)
+                .orElseThrow(() -> new EntityNotFoundException("Doctor not found: " + doctorId));
+    }
+}
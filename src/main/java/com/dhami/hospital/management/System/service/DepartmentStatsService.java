@@ -0,0 +1,215 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.DepartmentDayCount;
+import com.dhami.hospital.management.System.dto.DepartmentStatsView;
+import com.dhami.hospital.management.System.repository.DepartmentRepository;
+import com.dhami.hospital.management.System.repository.DepartmentStatsRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+department dashboard read model (department_stats, department_daily_stats)
+-> appointment writes (listener.AppointmentStatsListener) record +1 / -1 per (doctor, day) in a buffer bound to the transaction
+-> right before commit the buffer is flushed as a few set based UPDATEs / upserts, same transaction,
+   so the stats commit or roll back together with the appointments
+-> the buffer is registered as soon as an appointment is persisted / loaded / removed: with pooled sequences the
+   INSERT (and @PostPersist) only happens in the commit flush, after the beforeCommit phase has already passed
+-> bulk statements, big batches and department changes mark whole departments, those are recomputed from scratch
+-> nightly (and on startup) every department is recomputed, repairs anything written outside the app
+hospital.department-stats.enabled=false -> no maintenance at all, the dashboard shows whatever the tables hold
+   (the upsert is postgres sql, the jmh profile on H2 turns it off)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DepartmentStatsService {
+
+    private static final Object PENDING_KEY = new Object();
+
+    // more (doctor, day) deltas than this in one transaction (imports) -> recompute the doctors' departments instead
+    private static final int MAX_DELTAS = 100;
+
+    private final DepartmentStatsRepository statsRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EntityManager entityManager;
+
+    @Value("${hospital.department-stats.enabled:true}")
+    private boolean enabled;
+
+    @Transactional(readOnly = true)
+    public List<DepartmentStatsView> getDashboard() {
+        return statsRepository.findDashboard(LocalDate.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DepartmentDayCount> getDailyCounts(Long departmentId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return statsRepository.findDailyCounts(departmentId, from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hospital.department-stats.rebuild-cron:0 30 2 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> departmentIds = departmentRepository.findAllIds();
+        recompute(departmentIds);
+        log.info("department stats rebuilt: {} departments in {} ms",
+                departmentIds.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    @Transactional
+    public void refresh(Collection<Long> departmentIds) {
+        if (enabled) {
+            recompute(departmentIds);
+        }
+    }
+
+    // make sure the current transaction runs the stats maintenance before it commits
+    public void watch() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending();
+        }
+    }
+
+    // +delta appointments of a doctor on a day, applied before the current transaction commits
+    public void appointmentsChanged(Long doctorId, LocalDate appointmentDate, long delta) {
+        PendingStats pending = pending();
+        if (pending != null) {
+            pending.deltas.merge(new DoctorDay(doctorId, appointmentDate), delta, Long::sum);
+        }
+    }
+
+    // bulk change of these doctors' appointments -> their departments are recomputed before commit
+    public void doctorsChanged(Collection<Long> doctorIds) {
+        PendingStats pending = pending();
+        if (pending != null) {
+            pending.doctorIds.addAll(doctorIds);
+        }
+    }
+
+    public void departmentChanged(Long departmentId) {
+        PendingStats pending = pending();
+        if (pending != null) {
+            pending.departmentIds.add(departmentId);
+        }
+    }
+
+    // bulk change that can touch any department (purge)
+    public void allChanged() {
+        PendingStats pending = pending();
+        if (pending != null) {
+            pending.all = true;
+        }
+    }
+
+    private PendingStats pending() {
+        if (!enabled) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("appointment change outside of a transaction, department stats catch up on the next rebuild");
+            return null;
+        }
+        PendingStats pending = (PendingStats) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (pending == null) {
+            pending = new PendingStats();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void apply(PendingStats pending) {
+        entityManager.flush(); // pending appointment inserts / deletes fire their callbacks now, before the copy below
+
+        if (pending.all) {
+            recompute(departmentRepository.findAllIds());
+            return;
+        }
+
+        Set<Long> doctorIds = new HashSet<>(pending.doctorIds);
+        Map<DoctorDay, Long> deltas = Map.copyOf(pending.deltas);
+        if (deltas.size() > MAX_DELTAS) {
+            deltas.keySet().forEach(doctorDay -> doctorIds.add(doctorDay.doctorId()));
+            deltas = Map.of();
+        }
+
+        // deltas first: a department recomputed afterwards simply overwrites them with the full count
+        Map<Long, Long> byDoctor = new HashMap<>();
+        for (Map.Entry<DoctorDay, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                statsRepository.addDailyAppointments(delta.getKey().doctorId(), delta.getKey().appointmentDate(), delta.getValue());
+                byDoctor.merge(delta.getKey().doctorId(), delta.getValue(), Long::sum);
+            }
+        }
+        byDoctor.forEach((doctorId, delta) -> {
+            if (delta != 0) {
+                statsRepository.addAppointments(doctorId, delta);
+                statsRepository.addHeadDoctorAppointments(doctorId, delta);
+            }
+        });
+
+        Set<Long> departmentIds = new HashSet<>(pending.departmentIds);
+        if (!doctorIds.isEmpty()) {
+            departmentIds.addAll(departmentRepository.findIdsByDoctorIds(doctorIds));
+        }
+        recompute(departmentIds);
+    }
+
+    private void recompute(Collection<Long> departmentIds) {
+        if (departmentIds.isEmpty()) {
+            return;
+        }
+        statsRepository.deleteDailyStats(departmentIds);
+        statsRepository.insertDailyStats(departmentIds);
+        statsRepository.deleteStats(departmentIds);
+        statsRepository.insertStats(departmentIds);
+    }
+
+    private record DoctorDay(Long doctorId, LocalDate appointmentDate) {
+    }
+
+    private final class PendingStats implements TransactionSynchronization {
+
+        private final Map<DoctorDay, Long> deltas = new HashMap<>();
+        private final Set<Long> doctorIds = new HashSet<>();
+        private final Set<Long> departmentIds = new HashSet<>();
+        private boolean all;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!readOnly) {
+                apply(this);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+        }
+    }
+}
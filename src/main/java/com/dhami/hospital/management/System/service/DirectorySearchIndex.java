@@ -0,0 +1,33 @@
+package com.dhami.hospital.management.System.service;
+
+import org.springframework.stereotype.Component;
+
+/*
+front desk search: patients by name / email, doctors by name / specialization
+-> one SearchIndex per entity, filled on startup by SearchService
+-> kept coherent by listener.PatientSearchListener / DoctorSearchListener (see AfterCommit)
+-> bulk deletes bypass the listeners, PatientService removes those patients itself
+ */
+@Component
+public class DirectorySearchIndex {
+
+    // only the part before @ is searchable, "example.com" would match every patient
+    private final SearchIndex patients = new SearchIndex(hit -> hit.name() + " " + localPart(hit.detail()));
+    private final SearchIndex doctors = new SearchIndex(hit -> hit.name() + " " + hit.detail());
+
+    public SearchIndex patients() {
+        return patients;
+    }
+
+    public SearchIndex doctors() {
+        return doctors;
+    }
+
+    private static String localPart(String email) {
+        if (email == null) {
+            return "";
+        }
+        int at = email.indexOf('@');
+        return at < 0 ? email : email.substring(0, at);
+    }
+}
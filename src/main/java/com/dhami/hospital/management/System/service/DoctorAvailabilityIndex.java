@@ -0,0 +1,160 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.BookedSlot;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+In-memory view of booked slots, one sorted map per doctor: appointment start -> appointment id.
+every appointment occupies [start, start + slot length)
+-> overlap check = floorKey / ceilingKey lookups, O(log n)
+-> next free slot = walk the slot grid and jump over booked intervals
+the database stays the source of truth (booking re-checks under a row lock), this is the fast path.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoctorAvailabilityIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<Long, NavigableMap<LocalDateTime, Long>> bookedByDoctor = new ConcurrentHashMap<>();
+
+    @Value("${hospital.scheduling.slot-minutes:30}")
+    private int slotMinutes;
+
+    @Value("${hospital.scheduling.day-start:09:00}")
+    private LocalTime dayStart;
+
+    @Value("${hospital.scheduling.day-end:17:00}")
+    private LocalTime dayEnd;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<BookedSlot> upcoming = appointmentRepository.findBookedSlotsFrom(LocalDate.now().atStartOfDay());
+        bookedByDoctor.clear();
+        upcoming.forEach(slot -> add(slot.doctorId(), slot.appointmentTime(), slot.appointmentId()));
+        log.info("doctor availability index rebuilt: {} upcoming appointments in {} ms",
+                upcoming.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    public Duration slotLength() {
+        return Duration.ofMinutes(slotMinutes);
+    }
+
+    public void add(Long doctorId, LocalDateTime start, Long appointmentId) {
+        bookedByDoctor.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>()).put(start, appointmentId);
+    }
+
+    public void remove(Long doctorId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, Long> booked = bookedByDoctor.get(doctorId);
+        if (booked != null) {
+            booked.remove(start);
+        }
+    }
+
+    // bulk purge -> drop everything that started before the cutoff
+    public void removeBefore(LocalDateTime cutoff) {
+        bookedByDoctor.values().forEach(booked -> booked.headMap(cutoff).clear());
+    }
+
+    // bulk reassign -> all bookings of one doctor now belong to another
+    public void moveAll(Long fromDoctorId, Long toDoctorId) {
+        NavigableMap<LocalDateTime, Long> moved = bookedByDoctor.remove(fromDoctorId);
+        if (moved != null) {
+            bookedByDoctor.computeIfAbsent(toDoctorId, id -> new ConcurrentSkipListMap<>()).putAll(moved);
+        }
+    }
+
+    // first booking of 'fromDoctorId' that overlaps a booking of 'toDoctorId', null when they can be merged
+    public LocalDateTime firstConflict(Long fromDoctorId, Long toDoctorId) {
+        NavigableMap<LocalDateTime, Long> from = bookedByDoctor.getOrDefault(fromDoctorId, Collections.emptyNavigableMap());
+        NavigableMap<LocalDateTime, Long> to = bookedByDoctor.getOrDefault(toDoctorId, Collections.emptyNavigableMap());
+        for (LocalDateTime start : from.keySet()) {
+            if (blockingEnd(to, start) != null) {
+                return start;
+            }
+        }
+        return null;
+    }
+
+    public boolean isWithinWorkingHours(LocalDateTime start) {
+        LocalTime time = start.toLocalTime();
+        return !time.isBefore(dayStart) && !time.plusMinutes(slotMinutes).isAfter(dayEnd)
+                && time.isBefore(time.plusMinutes(slotMinutes)); // slot must not cross midnight
+    }
+
+    public boolean isFree(Long doctorId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, Long> booked = bookedByDoctor.get(doctorId);
+        return booked == null || blockingEnd(booked, start) == null;
+    }
+
+    // reschedule -> free apart from the appointment that is being moved
+    public boolean isFree(Long doctorId, LocalDateTime start, Long ignoredAppointmentId) {
+        NavigableMap<LocalDateTime, Long> booked = bookedByDoctor.get(doctorId);
+        return booked == null || booked.subMap(start.minusMinutes(slotMinutes), false, start.plusMinutes(slotMinutes), false)
+                .values().stream().allMatch(ignoredAppointmentId::equals);
+    }
+
+    // earliest free slot start >= from, within working hours, or null if none before 'until'
+    public LocalDateTime nextFreeSlot(Long doctorId, LocalDateTime from, LocalDateTime until) {
+        NavigableMap<LocalDateTime, Long> booked = bookedByDoctor.getOrDefault(doctorId, Collections.emptyNavigableMap());
+        LocalDateTime candidate = alignToGrid(from);
+        while (candidate.isBefore(until)) {
+            LocalDateTime blockedUntil = blockingEnd(booked, candidate);
+            if (blockedUntil == null) {
+                return candidate;
+            }
+            candidate = alignToGrid(blockedUntil);
+        }
+        return null;
+    }
+
+    // end of the booked interval that overlaps [start, start + slot), null when the slot is free
+    private LocalDateTime blockingEnd(NavigableMap<LocalDateTime, Long> booked, LocalDateTime start) {
+        LocalDateTime end = start.plusMinutes(slotMinutes);
+        Map.Entry<LocalDateTime, Long> before = booked.floorEntry(start);
+        if (before != null && before.getKey().plusMinutes(slotMinutes).isAfter(start)) {
+            return before.getKey().plusMinutes(slotMinutes);
+        }
+        LocalDateTime after = booked.higherKey(start);
+        if (after != null && after.isBefore(end)) {
+            return after.plusMinutes(slotMinutes);
+        }
+        return null;
+    }
+
+    // round up to the next slot boundary counted from day start, moving to the next day outside working hours
+    private LocalDateTime alignToGrid(LocalDateTime time) {
+        LocalDateTime opening = time.toLocalDate().atTime(dayStart);
+        if (time.isBefore(opening)) {
+            return opening;
+        }
+        long minutes = Duration.between(opening, time).toMinutes();
+        if (Duration.between(opening, time).toSeconds() % 60 != 0) {
+            minutes++;
+        }
+        long aligned = ((minutes + slotMinutes - 1) / slotMinutes) * slotMinutes;
+        LocalDateTime slot = opening.plusMinutes(aligned);
+        if (!isWithinWorkingHours(slot) || !slot.toLocalDate().equals(opening.toLocalDate())) {
+            return time.toLocalDate().plusDays(1).atTime(dayStart);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,283 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.DonorMatch;
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/*
+In-memory donor index: blood group -> compressed (roaring) bitmap of patient ids.
+-> donors for a recipient = the bitmaps of BloodGroup.compatibleDonors(), blood groups are disjoint so
+   the count is a sum of counters and the first ids a merge of the bitmaps in id order, the union is never built
+-> age filter: the same ids bucketed by birth year, birth month and birth day, each bucket counts its ids per blood group
+   a birth date range = whole years in the middle + months / days at both ends (a few dozen buckets)
+   count -> sum of the bucket counters of the compatible groups
+   ids   -> wide range: walk the donors, keep those born in the range (~ limit * donors / matches lookups)
+            narrow range: OR its buckets, AND with each compatible group bitmap (~ patients born in the range)
+-> kept coherent by listener.DonorIndexListener (see AfterCommit)
+-> bulk writes bypass the listener, PatientService applies those itself
+patients without a blood group are not indexed, patients without a birth date only match when no age range is given
+ */
+@Component
+public class DonorIndex {
+
+    private static final int BLOOD_GROUPS = BloodGroup.values().length;
+
+    private final Map<BloodGroup, Roaring64NavigableMap> byBloodGroup = new EnumMap<>(BloodGroup.class);
+    // the bitmaps cache their cardinality on read (not thread safe) -> the counts are kept beside them
+    private final int[] countByBloodGroup = new int[BLOOD_GROUPS];
+    private final NavigableMap<Integer, Bucket> byBirthYear = new TreeMap<>();
+    private final Map<YearMonth, Bucket> byBirthMonth = new HashMap<>();
+    private final Map<LocalDate, Bucket> byBirthDay = new HashMap<>();
+    // what each patient is indexed under, an update has to leave its old buckets
+    private final Map<Long, DonorProfile> profiles = new HashMap<>();
+    // queries share the read lock, writes take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public DonorIndex() {
+        for (BloodGroup bloodGroup : BloodGroup.values()) {
+            byBloodGroup.put(bloodGroup, new Roaring64NavigableMap());
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return profiles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // compatible donors for the recipient born in [bornFrom, bornTo], both inclusive, null = open ended
+    public DonorMatch match(BloodGroup recipient, LocalDate bornFrom, LocalDate bornTo, int limit) {
+        Set<BloodGroup> donorGroups = recipient.compatibleDonors();
+        lock.readLock().lock();
+        try {
+            long donors = 0;
+            for (BloodGroup donor : donorGroups) {
+                donors += countByBloodGroup[donor.ordinal()];
+            }
+            if (bornFrom == null && bornTo == null) {
+                return new DonorMatch(donors, firstIds(donorGroups, id -> true, limit));
+            }
+
+            LocalDate from = bornFrom == null ? LocalDate.MIN : bornFrom;
+            LocalDate to = bornTo == null ? LocalDate.MAX : bornTo;
+            List<Bucket> buckets = bucketsBornBetween(from, to);
+            long born = 0;
+            long matches = 0;
+            for (Bucket bucket : buckets) {
+                born += bucket.size;
+                for (BloodGroup donor : donorGroups) {
+                    matches += bucket.countByBloodGroup[donor.ordinal()];
+                }
+            }
+            if (matches == 0) {
+                return new DonorMatch(0, List.of());
+            }
+
+            // expected birth date lookups when walking the donors vs ids to OR for the birth buckets
+            long walk = matches <= limit ? donors : limit * donors / matches;
+            if (walk <= born) {
+                return new DonorMatch(matches, firstIds(donorGroups, id -> bornBetween(profiles.get(id), from, to), limit));
+            }
+            Roaring64NavigableMap bornIds = new Roaring64NavigableMap();
+            buckets.forEach(bucket -> bornIds.or(bucket.patientIds));
+            Roaring64NavigableMap matching = new Roaring64NavigableMap();
+            for (BloodGroup donor : donorGroups) {
+                matching.or(Roaring64NavigableMap.and(bornIds, byBloodGroup.get(donor)));
+            }
+            return new DonorMatch(matches, firstIds(matching.getLongIterator(), limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(DonorProfile profile) {
+        lock.writeLock().lock();
+        try {
+            unindex(profiles.remove(profile.patientId()));
+            index(profile);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            unindex(profiles.remove(patientId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replaceAll(Collection<DonorProfile> donorProfiles) {
+        lock.writeLock().lock();
+        try {
+            byBloodGroup.values().forEach(Roaring64NavigableMap::clear);
+            Arrays.fill(countByBloodGroup, 0);
+            byBirthYear.clear();
+            byBirthMonth.clear();
+            byBirthDay.clear();
+            profiles.clear();
+            donorProfiles.forEach(this::index);
+            // long runs of consecutive ids (bulk imports) compress to run containers
+            byBloodGroup.values().forEach(Roaring64NavigableMap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // fewest buckets: a whole year when the range covers it, else a whole month, else the single day
+    private List<Bucket> bucketsBornBetween(LocalDate from, LocalDate to) {
+        List<Bucket> buckets = new ArrayList<>();
+        if (byBirthYear.isEmpty()) {
+            return buckets;
+        }
+        // clip open / far away ends to the birth years actually indexed
+        LocalDate first = LocalDate.of(byBirthYear.firstKey(), 1, 1);
+        LocalDate last = LocalDate.of(byBirthYear.lastKey(), 12, 31);
+        LocalDate day = from.isBefore(first) ? first : from;
+        LocalDate end = (to.isAfter(last) ? last : to).plusDays(1);
+
+        while (day.isBefore(end)) {
+            Bucket bucket;
+            if (day.getDayOfYear() == 1 && !day.plusYears(1).isAfter(end)) {
+                bucket = byBirthYear.get(day.getYear());
+                day = day.plusYears(1);
+            } else if (day.getDayOfMonth() == 1 && !day.plusMonths(1).isAfter(end)) {
+                bucket = byBirthMonth.get(YearMonth.from(day));
+                day = day.plusMonths(1);
+            } else {
+                bucket = byBirthDay.get(day);
+                day = day.plusDays(1);
+            }
+            if (bucket != null) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private static boolean bornBetween(DonorProfile profile, LocalDate from, LocalDate to) {
+        LocalDate birthDate = profile.birthDate();
+        return birthDate != null && !birthDate.isBefore(from) && !birthDate.isAfter(to);
+    }
+
+    // ascending ids over the (disjoint) bitmaps of the donor groups: a k-way merge, at most 8 heads
+    private List<Long> firstIds(Set<BloodGroup> donorGroups, LongPredicate filter, int limit) {
+        LongIterator[] iterators = new LongIterator[donorGroups.size()];
+        long[] heads = new long[iterators.length];
+        int i = 0;
+        for (BloodGroup donor : donorGroups) {
+            iterators[i] = byBloodGroup.get(donor).getLongIterator();
+            heads[i] = iterators[i].hasNext() ? iterators[i].next() : Long.MAX_VALUE;
+            i++;
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        while (ids.size() < limit) {
+            int smallest = 0;
+            for (int j = 1; j < heads.length; j++) {
+                if (heads[j] < heads[smallest]) {
+                    smallest = j;
+                }
+            }
+            long id = heads[smallest];
+            if (id == Long.MAX_VALUE) {
+                break; // every group exhausted
+            }
+            if (filter.test(id)) {
+                ids.add(id);
+            }
+            heads[smallest] = iterators[smallest].hasNext() ? iterators[smallest].next() : Long.MAX_VALUE;
+        }
+        return ids;
+    }
+
+    private static List<Long> firstIds(LongIterator iterator, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+
+    private void index(DonorProfile profile) {
+        if (profile.bloodGroup() == null) {
+            return;
+        }
+        profiles.put(profile.patientId(), profile);
+        byBloodGroup.get(profile.bloodGroup()).addLong(profile.patientId());
+        countByBloodGroup[profile.bloodGroup().ordinal()]++;
+        LocalDate birthDate = profile.birthDate();
+        if (birthDate != null) {
+            byBirthYear.computeIfAbsent(birthDate.getYear(), year -> new Bucket()).add(profile);
+            byBirthMonth.computeIfAbsent(YearMonth.from(birthDate), month -> new Bucket()).add(profile);
+            byBirthDay.computeIfAbsent(birthDate, date -> new Bucket()).add(profile);
+        }
+    }
+
+    private void unindex(DonorProfile profile) {
+        if (profile == null) {
+            return;
+        }
+        byBloodGroup.get(profile.bloodGroup()).removeLong(profile.patientId());
+        countByBloodGroup[profile.bloodGroup().ordinal()]--;
+        LocalDate birthDate = profile.birthDate();
+        if (birthDate != null) {
+            removeFromBucket(byBirthYear, birthDate.getYear(), profile);
+            removeFromBucket(byBirthMonth, YearMonth.from(birthDate), profile);
+            removeFromBucket(byBirthDay, birthDate, profile);
+        }
+    }
+
+    // empty buckets are dropped, the first / last birth year bound the range scan
+    private static <K> void removeFromBucket(Map<K, Bucket> buckets, K key, DonorProfile profile) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(profile)) {
+            buckets.remove(key);
+        }
+    }
+
+    // patients born in one year / month / day
+    private static final class Bucket {
+
+        private final Roaring64NavigableMap patientIds = new Roaring64NavigableMap();
+        private final int[] countByBloodGroup = new int[BLOOD_GROUPS];
+        private int size;
+
+        void add(DonorProfile profile) {
+            patientIds.addLong(profile.patientId());
+            countByBloodGroup[profile.bloodGroup().ordinal()]++;
+            size++;
+        }
+
+        // true when the bucket is empty afterwards
+        boolean remove(DonorProfile profile) {
+            patientIds.removeLong(profile.patientId());
+            countByBloodGroup[profile.bloodGroup().ordinal()]--;
+            return --size == 0;
+        }
+    }
+}
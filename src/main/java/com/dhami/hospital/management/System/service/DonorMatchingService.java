@@ -0,0 +1,51 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.DonorMatch;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// compatible donors over DonorIndex, the database is only read once on startup
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DonorMatchingService {
+
+    public static final int MAX_LIMIT = 1_000;
+
+    private final DonorIndex donorIndex;
+    private final PatientRepository patientRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        donorIndex.replaceAll(patientRepository.findAllDonorProfiles());
+        log.info("donor index rebuilt: {} patients in {} ms", donorIndex.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /*
+    age in whole years today, minAge <= age <= maxAge (either may be null)
+    -> born on or before today - minAge years, born after today - (maxAge + 1) years
+     */
+    public DonorMatch findCompatibleDonors(BloodGroup recipient, Integer minAge, Integer maxAge, int limit) {
+        if (recipient == null) {
+            throw new IllegalArgumentException("Recipient blood group is required");
+        }
+        if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)
+                || (minAge != null && maxAge != null && minAge > maxAge)) {
+            throw new IllegalArgumentException("Invalid age range: " + minAge + " - " + maxAge);
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate bornFrom = maxAge == null ? null : today.minusYears(maxAge + 1L).plusDays(1);
+        LocalDate bornTo = minAge == null ? null : today.minusYears(minAge);
+        return donorIndex.match(recipient, bornFrom, bornTo, Math.clamp(limit, 1, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,52 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.InsurancePolicyValidity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+In-memory hash index: policy number -> (insurance id, validUntil).
+-> validity check by policy number = one map lookup, no db round trip
+-> kept coherent by listener.InsurancePolicyIndexListener: every insert / update / delete of an Insurance
+   entity is applied after its transaction commits (see AfterCommit)
+-> writes that bypass entities (native sql) are picked up by the read-through in InsuranceService
+ */
+@Component
+public class InsurancePolicyIndex {
+
+    private final Map<String, InsurancePolicyValidity> byPolicyNumber = new ConcurrentHashMap<>();
+    private final Map<Long, String> policyNumberById = new ConcurrentHashMap<>();
+
+    public InsurancePolicyValidity get(String policyNumber) {
+        return byPolicyNumber.get(policyNumber);
+    }
+
+    public int size() {
+        return byPolicyNumber.size();
+    }
+
+    // reads are lock free, writes are rare and touch both maps
+    public synchronized void put(InsurancePolicyValidity validity) {
+        String previous = policyNumberById.put(validity.insuranceId(), validity.policyNumber());
+        if (previous != null && !previous.equals(validity.policyNumber())) {
+            byPolicyNumber.remove(previous); // policy number was changed
+        }
+        byPolicyNumber.put(validity.policyNumber(), validity);
+    }
+
+    public synchronized void remove(Long insuranceId) {
+        String policyNumber = policyNumberById.remove(insuranceId);
+        if (policyNumber != null) {
+            byPolicyNumber.remove(policyNumber);
+        }
+    }
+
+    public synchronized void replaceAll(Collection<InsurancePolicyValidity> validities) {
+        byPolicyNumber.clear();
+        policyNumberById.clear();
+        validities.forEach(this::put);
+    }
+}
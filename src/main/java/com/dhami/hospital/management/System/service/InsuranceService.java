@@ -1,16 +1,144 @@
 package com.dhami.hospital.management.System.service;
 
+import com.dhami.hospital.management.System.dto.ExpirySweepResult;
+import com.dhami.hospital.management.System.dto.InsurancePolicyValidity;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.InsuranceStatus;
 import com.dhami.hospital.management.System.repository.InsuranceRepository;
-import com.dhami.hospital.management.System.repository.PatientRepository;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/*
+policy validity lookups go through InsurancePolicyIndex (hash lookup), the db is only hit on a miss.
+expiry sweep:
+-> range scan on idx_insurance_valid_until, chunk of ids per transaction
+-> one bulk JPQL UPDATE per chunk, no entity is loaded, it repeats the range predicate (renewed meanwhile -> skipped)
+-> updated rows drop out of the range predicate, so the next chunk is simply the next "first N"
+renew / extend are read-modify-write on a versioned row: a concurrent change fails the version check on commit
+and the method is retried in a new transaction on the fresh row (bounded, with backoff)
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class InsuranceService {
 
+    private final InsuranceRepository insuranceRepository;
+    private final InsurancePolicyIndex policyIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${hospital.insurance.expiry-sweep.days-ahead:30}")
+    private int expiringDaysAhead;
+
+    @Value("${hospital.insurance.expiry-sweep.chunk-size:500}")
+    private int sweepChunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildPolicyIndex() {
+        long start = System.nanoTime();
+        List<InsurancePolicyValidity> validities = insuranceRepository.findAllPolicyValidities();
+        policyIndex.replaceAll(validities);
+        log.info("insurance policy index rebuilt: {} policies in {} ms",
+                validities.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    public boolean isValid(String policyNumber) {
+        return isValid(policyNumber, LocalDate.now());
+    }
+
+    public boolean isValid(String policyNumber, LocalDate date) {
+        return findValidity(policyNumber).map(validity -> validity.isValidOn(date)).orElse(false);
+    }
+
+    public Optional<InsurancePolicyValidity> findValidity(String policyNumber) {
+        InsurancePolicyValidity validity = policyIndex.get(policyNumber);
+        if (validity != null) {
+            return Optional.of(validity);
+        }
+        // miss -> unknown policy or a row written outside hibernate, read through once
+        Optional<InsurancePolicyValidity> stored = insuranceRepository.findValidityByPolicyNumber(policyNumber);
+        stored.ifPresent(policyIndex::put);
+        return stored;
+    }
+
+    @RetryOnOptimisticLock
+    @Transactional
+    public Insurance renew(String policyNumber, LocalDate validUntil) {
+        Insurance insurance = insuranceRepository.findByPolicyNumber(policyNumber)
+                .orElseThrow(() -> new EntityNotFoundException("Insurance not found: " + policyNumber));
+        if (validUntil == null || !validUntil.isAfter(insurance.getValidUntil())) {
+            throw new IllegalArgumentException("Renewal must extend validUntil beyond " + insurance.getValidUntil());
+        }
+        insurance.setValidUntil(validUntil);
+        insurance.setStatus(InsuranceStatus.ACTIVE);
+        return insurance; // dirty checking, index is updated by the entity listener after commit
+    }
+
+    // one more term on top of the current validUntil (or from today for a lapsed policy)
+    @RetryOnOptimisticLock
+    @Transactional
+    public Insurance extend(String policyNumber, Period term) {
+        if (term == null || term.isNegative() || term.isZero()) {
+            throw new IllegalArgumentException("Extension term must be positive");
+        }
+        Insurance insurance = insuranceRepository.findByPolicyNumber(policyNumber)
+                .orElseThrow(() -> new EntityNotFoundException("Insurance not found: " + policyNumber));
+        LocalDate today = LocalDate.now();
+        LocalDate from = insurance.getValidUntil().isBefore(today) ? today : insurance.getValidUntil();
+        insurance.setValidUntil(from.plus(term));
+        insurance.setStatus(InsuranceStatus.ACTIVE);
+        return insurance;
+    }
 
+    @Scheduled(cron = "${hospital.insurance.expiry-sweep.cron:0 0 2 * * *}")
+    public ExpirySweepResult sweepExpiringPolicies() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
 
+        List<InsuranceStatus> notExpired = List.of(InsuranceStatus.ACTIVE, InsuranceStatus.EXPIRING);
+        int expired = markInChunks(
+                limit -> insuranceRepository.findIdsValidBefore(today, notExpired, limit),
+                ids -> insuranceRepository.updateStatusValidBefore(ids, today, notExpired, InsuranceStatus.EXPIRED));
+        LocalDate expiringUntil = today.plusDays(expiringDaysAhead);
+        List<InsuranceStatus> active = List.of(InsuranceStatus.ACTIVE);
+        int expiring = markInChunks(
+                limit -> insuranceRepository.findIdsValidBetween(today, expiringUntil, active, limit),
+                ids -> insuranceRepository.updateStatusValidBetween(ids, today, expiringUntil, active, InsuranceStatus.EXPIRING));
 
+        ExpirySweepResult result = new ExpirySweepResult(expired, expiring, Duration.ofNanos(System.nanoTime() - start));
+        log.info("insurance expiry sweep: {} expired, {} expiring within {} days, {} ms",
+                result.expired(), result.expiring(), expiringDaysAhead, result.elapsed().toMillis());
+        return result;
+    }
 
+    // status only, validUntil is untouched -> the policy index stays valid
+    // a chunk can update fewer rows than it selected (renewed meanwhile), the sweep only ends when the select is empty
+    private int markInChunks(Function<Limit, List<Long>> nextChunk, Function<List<Long>, Integer> mark) {
+        int total = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(tx -> {
+                List<Long> ids = nextChunk.apply(Limit.of(sweepChunkSize));
+                return ids.isEmpty() ? null : mark.apply(ids);
+            });
+            if (updated == null) {
+                return total;
+            }
+            total += updated;
+        }
+    }
 }
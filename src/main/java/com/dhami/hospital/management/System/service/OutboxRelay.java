@@ -0,0 +1,143 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.entity.OutboxEvent;
+import com.dhami.hospital.management.System.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+background relay outbox_event -> AppointmentEventListener beans
+-> every poll: lock the oldest batch-size events, hand them to the listeners in id order, delete the delivered ones,
+   one transaction per batch, repeat while batches come back full
+-> each event is handed over in its own transaction (REQUIRES_NEW, a second connection while the batch is open):
+   a @Transactional listener that fails rolls back its own work only, the batch transaction still commits
+   the deletes of the events delivered before it and the attempts / backoff of the failed one
+-> id order = order of the changes per appointment, not a global commit order (see OutboxEvent)
+-> at-least-once: rows are deleted in the transaction that delivered them, a crash before commit delivers them again
+-> backpressure: the next batch is only read after the listeners are done with this one,
+   a slow consumer lets the table grow instead of slowing down bookings (those only insert a row)
+-> a failing event is retried with exponential backoff and parked as dead after max-attempts,
+   until then the later events of its appointment wait (skipped in this batch, not read by the next ones),
+   events of other appointments keep flowing
+hospital.outbox.relay.enabled=false -> this instance only writes events, another one delivers them
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hospital.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectProvider<AppointmentEventListener> listeners;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate dispatchTransaction;
+    private final Counter delivered;
+    private final Counter failed;
+
+    @Value("${hospital.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${hospital.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${hospital.outbox.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${hospital.outbox.max-retry-backoff:5m}")
+    private Duration maxRetryBackoff;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository, ObjectProvider<AppointmentEventListener> listeners,
+                       JsonMapper jsonMapper, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.listeners = listeners;
+        this.jsonMapper = jsonMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dispatchTransaction = new TransactionTemplate(transactionManager);
+        this.dispatchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.delivered = Counter.builder("hospital.outbox.delivered").register(meterRegistry);
+        this.failed = Counter.builder("hospital.outbox.failed").register(meterRegistry);
+        Gauge.builder("hospital.outbox.pending", outboxRepository, OutboxEventRepository::countByDeadFalse)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.outbox.poll-interval:200ms}")
+    public void relay() {
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> relayBatch()))) {
+            // full batch delivered, there may be more waiting
+        }
+    }
+
+    // true when a full batch was read, there may be more waiting
+    private boolean relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxRepository.findNextBatchForUpdate(now, Limit.of(batchSize));
+        List<Long> deliveredIds = new ArrayList<>(batch.size());
+        // appointments with a failed event in this batch, their later events wait for its retry
+        Set<Long> blocked = new HashSet<>();
+
+        for (OutboxEvent event : batch) {
+            if (blocked.contains(event.getAggregateId())) {
+                continue;
+            }
+            try {
+                dispatchTransaction.executeWithoutResult(status -> dispatch(event));
+                deliveredIds.add(event.getId());
+            } catch (RuntimeException e) {
+                failed(event, e, now);
+                blocked.add(event.getAggregateId());
+            }
+        }
+
+        if (!deliveredIds.isEmpty()) {
+            outboxRepository.deleteAllByIds(deliveredIds);
+            delivered.increment(deliveredIds.size());
+        }
+        return batch.size() == batchSize;
+    }
+
+    private void dispatch(OutboxEvent event) {
+        AppointmentEvent payload = jsonMapper.readValue(event.getPayload(), AppointmentEvent.class);
+        listeners.orderedStream().forEach(listener -> listener.onAppointmentEvent(event.getId(), payload));
+    }
+
+    private void failed(OutboxEvent event, RuntimeException e, LocalDateTime now) {
+        failed.increment();
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(String.valueOf(e)));
+        if (attempts >= maxAttempts) {
+            event.setDead(true);
+            log.error("outbox event {} ({} {}) parked after {} attempts", event.getId(), event.getEventType(),
+                    event.getAggregateId(), attempts, e);
+            return;
+        }
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        event.setNextAttemptAt(now.plus(backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff));
+        log.warn("outbox event {} ({} {}) failed, attempt {}, retry at {}", event.getId(), event.getEventType(),
+                event.getAggregateId(), attempts, event.getNextAttemptAt(), e);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
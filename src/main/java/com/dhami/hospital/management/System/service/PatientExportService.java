@@ -0,0 +1,147 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.PatientAppointmentRow;
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/*
+Full patient history export (patient + insurance + appointments), same layout PatientImportService reads.
+-> patients come from a database cursor (Stream), never the whole table in a List
+-> every chunk-size patients: one select for their appointments, write, flush, clear the persistence context
+so memory stays flat and the first rows reach the client right away.
+ */
+@Service
+@RequiredArgsConstructor
+public class PatientExportService {
+
+    private static final String CSV_HEADER =
+            "name,gender,birthDate,email,bloodGroup,policyNumber,provider,validUntil,appointmentTime,reason,doctorId";
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+
+    @Value("${hospital.export.chunk-size:500}")
+    private int chunkSize;
+
+    @Transactional(readOnly = true)
+    public long export(OutputStream outputStream, PatientImportService.Format format) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long written = 0;
+        try (Stream<Patient> patients = patientRepository.streamAllWithInsurance()) {
+            if (format == PatientImportService.Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            List<Patient> chunk = new ArrayList<>(chunkSize);
+            Iterator<Patient> iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    written += writeChunk(chunk, writer, format);
+                }
+            }
+            written += writeChunk(chunk, writer, format);
+            writer.flush();
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Patient export failed", e);
+        }
+    }
+
+    private int writeChunk(List<Patient> chunk, Writer writer, PatientImportService.Format format) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<PatientImportRow.AppointmentRow>> history = new LinkedHashMap<>();
+        for (PatientAppointmentRow row : appointmentRepository.findHistoryRowsByPatientIds(chunk.stream().map(Patient::getId).toList())) {
+            history.computeIfAbsent(row.patientId(), id -> new ArrayList<>())
+                    .add(new PatientImportRow.AppointmentRow(row.appointmentTime(), row.reason(), row.doctorId()));
+        }
+
+        for (Patient patient : chunk) {
+            PatientImportRow row = toRow(patient, history.getOrDefault(patient.getId(), List.of()));
+            if (format == PatientImportService.Format.NDJSON) {
+                writer.write(jsonMapper.writeValueAsString(row));
+                writer.write('\n');
+            } else {
+                writeCsv(row, writer);
+            }
+        }
+        writer.flush();
+
+        int size = chunk.size();
+        chunk.clear();
+        entityManager.clear(); // detach the written patients + insurances
+        return size;
+    }
+
+    private PatientImportRow toRow(Patient patient, List<PatientImportRow.AppointmentRow> appointments) {
+        Insurance insurance = patient.getInsurance();
+        return new PatientImportRow(patient.getName(), patient.getGender(), patient.getBirthDate(), patient.getEmail(),
+                patient.getBloodGroup(),
+                insurance == null ? null : new PatientImportRow.InsuranceRow(insurance.getPolicyNumber(),
+                        insurance.getProvider(), insurance.getValidUntil()),
+                appointments);
+    }
+
+    // one line per appointment (patient columns repeated), one line with empty appointment columns when there is none
+    private void writeCsv(PatientImportRow row, Writer writer) throws IOException {
+        PatientImportRow.InsuranceRow insurance = row.insurance();
+        String patientColumns = String.join(",",
+                csv(row.name()), csv(row.gender()), csv(row.birthDate()), csv(row.email()), csv(row.bloodGroup()),
+                csv(insurance == null ? null : insurance.policyNumber()),
+                csv(insurance == null ? null : insurance.provider()),
+                csv(insurance == null ? null : insurance.validUntil()));
+
+        if (row.appointments().isEmpty()) {
+            writer.write(patientColumns);
+            writer.write(",,,\n");
+            return;
+        }
+        for (PatientImportRow.AppointmentRow appointment : row.appointments()) {
+            writer.write(patientColumns);
+            writer.write(',');
+            writer.write(String.join(",", csv(appointment.appointmentTime()), csv(appointment.reason()),
+                    csv(appointment.doctorId())));
+            writer.write('\n');
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // quoted line breaks are read back by the importer (\r\n inside a value comes back as \n)
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
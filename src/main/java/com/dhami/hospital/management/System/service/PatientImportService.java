@@ -0,0 +1,473 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.BookedSlot;
+import com.dhami.hospital.management.System.dto.ImportResult;
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.deser.std.FromStringDeserializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+Bulk import of patients (+ insurance + appointments) from CSV or NDJSON.
+-> the file is read row by row (never fully in memory)
+-> rows are persisted in chunks, each chunk is its own transaction
+-> after every chunk: flush() + clear() so the persistence context does not keep growing
+-> a row that cannot be read or stored is rejected with its line number, the rest of the file is still imported:
+   unreadable / incomplete rows are skipped before persisting, a chunk the database refuses (unknown doctor,
+   duplicate email, ...) is rolled back and persisted again row by row so only the offending rows are left out
+-> gender / blood group in legacy spellings ('f', 'O+', 'ab-ve') are read with Gender.parse / BloodGroup.parse,
+   the normalization V3 applied to the existing rows, in CSV and NDJSON alike; anything else rejects the row
+-> no outbox events: an import loads existing history, consumers would otherwise get a reminder for every old row
+-> appointments from today on are added to DoctorAvailabilityIndex after their chunk committed (same range as its rebuild),
+   otherwise the booking fast path would offer their slots until the next restart
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PatientImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    public record Progress(long rows, long patients, Duration elapsed) {
+        public double rowsPerSecond() {
+            double seconds = elapsed.toNanos() / 1_000_000_000.0;
+            return seconds == 0 ? rows : rows / seconds;
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final DoctorAvailabilityIndex availabilityIndex;
+
+    @Value("${hospital.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public ImportResult importFile(Path file, Format format) {
+        return importFile(file, format, progress -> log.info("import progress: {} rows, {} patients, {} rows/sec",
+                progress.rows(), progress.patients(), String.format("%.0f", progress.rowsPerSecond())));
+    }
+
+    public ImportResult importFile(Path file, Format format, Consumer<Progress> progressListener) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return switch (format) {
+                case NDJSON -> importRows(new NdjsonRowIterator(reader, jsonMapper), progressListener);
+                case CSV -> importRows(new CsvRowIterator(reader), progressListener);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import file " + file, e);
+        }
+    }
+
+    private ImportResult importRows(Iterator<SourceRow> rows, Consumer<Progress> progressListener) {
+        long start = System.nanoTime();
+        Counts counts = new Counts();
+        List<SourceRow> chunk = new ArrayList<>(chunkSize);
+
+        while (rows.hasNext()) {
+            SourceRow row = rows.next();
+            counts.rows++;
+            String error = row.error() != null ? row.error() : validate(row.row());
+            if (error != null) {
+                counts.reject(row.line(), error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                persistChunk(chunk, counts);
+                chunk.clear();
+                progressListener.accept(new Progress(counts.rows, counts.patients, Duration.ofNanos(System.nanoTime() - start)));
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, counts);
+            progressListener.accept(new Progress(counts.rows, counts.patients, Duration.ofNanos(System.nanoTime() - start)));
+        }
+
+        if (counts.rejected > 0) {
+            log.warn("import rejected {} of {} rows, first: line {}: {}", counts.rejected, counts.rows,
+                    counts.errors.getFirst().line(), counts.errors.getFirst().message());
+        }
+        return new ImportResult(counts.rows, counts.patients, counts.insurances, counts.appointments, counts.rejected,
+                List.copyOf(counts.errors), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // whole chunk in one transaction, only counted once it committed; refused -> again one transaction per row
+    private void persistChunk(List<SourceRow> chunk, Counts counts) {
+        try {
+            counts.add(transactionTemplate.execute(status -> persist(chunk)));
+        } catch (PersistenceException | DataAccessException e) {
+            log.debug("import chunk refused, retrying row by row", e);
+            for (SourceRow row : chunk) {
+                try {
+                    counts.add(transactionTemplate.execute(status -> persist(List.of(row))));
+                } catch (PersistenceException | DataAccessException rowFailure) {
+                    counts.reject(row.line(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+    }
+
+    private Counts persist(List<SourceRow> rows) {
+        Counts persisted = new Counts();
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        List<Appointment> upcoming = new ArrayList<>();
+        for (SourceRow row : rows) {
+            Patient patient = toPatient(row.row());
+            entityManager.persist(patient); // insurance goes with it (CascadeType.ALL)
+            persisted.patients++;
+            if (patient.getInsurance() != null) {
+                persisted.insurances++;
+            }
+            for (Appointment appointment : patient.getAppointments()) {
+                entityManager.persist(appointment);
+                persisted.appointments++;
+                if (!appointment.getAppointmentTime().isBefore(today)) {
+                    upcoming.add(appointment);
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // detached by clear(), the ids are still there (getId does not initialize the doctor proxy)
+        List<BookedSlot> booked = upcoming.stream()
+                .map(appointment -> new BookedSlot(appointment.getId(), appointment.getDoctor().getId(), appointment.getAppointmentTime()))
+                .toList();
+        if (!booked.isEmpty()) {
+            AfterCommit.run(() -> booked.forEach(slot ->
+                    availabilityIndex.add(slot.doctorId(), slot.appointmentTime(), slot.appointmentId())));
+        }
+        return persisted;
+    }
+
+    // what the database would refuse anyway, reported with a message a person can act on
+    private static String validate(PatientImportRow row) {
+        if (row.name() == null || row.name().isBlank()) {
+            return "name is missing";
+        }
+        if (row.email() == null || row.email().isBlank()) {
+            return "email is missing";
+        }
+        PatientImportRow.InsuranceRow insurance = row.insurance();
+        if (insurance != null && insurance.policyNumber() != null
+                && (insurance.provider() == null || insurance.validUntil() == null)) {
+            return "insurance " + insurance.policyNumber() + " needs a provider and a validUntil date";
+        }
+        if (row.appointments() != null) {
+            for (PatientImportRow.AppointmentRow appointment : row.appointments()) {
+                if (appointment.appointmentTime() == null || appointment.doctorId() == null) {
+                    return "appointment needs an appointmentTime and a doctorId";
+                }
+            }
+        }
+        return null;
+    }
+
+    private Patient toPatient(PatientImportRow row) {
+        Patient patient = new Patient();
+        patient.setName(row.name());
+        patient.setGender(row.gender());
+        patient.setBirthDate(row.birthDate());
+        patient.setEmail(row.email());
+        patient.setBloodGroup(row.bloodGroup());
+
+        PatientImportRow.InsuranceRow insuranceRow = row.insurance();
+        if (insuranceRow != null && insuranceRow.policyNumber() != null) {
+            patient.setInsurance(Insurance.builder()
+                    .policyNumber(insuranceRow.policyNumber())
+                    .provider(insuranceRow.provider())
+                    .validUntil(insuranceRow.validUntil())
+                    .build());
+        }
+
+        if (row.appointments() != null) {
+            for (PatientImportRow.AppointmentRow appointmentRow : row.appointments()) {
+                patient.getAppointments().add(Appointment.builder()
+                        .appointmentTime(appointmentRow.appointmentTime())
+                        .reason(appointmentRow.reason())
+                        .patient(patient)
+                        // proxy only, doctor row is not selected
+                        .doctor(entityManager.getReference(Doctor.class, appointmentRow.doctorId()))
+                        .build());
+            }
+        }
+        return patient;
+    }
+
+    // one patient of the file: the first line it was read from, and the row or why it could not be read
+    private record SourceRow(long line, PatientImportRow row, String error) {
+    }
+
+    private static final class Counts {
+
+        private long rows;
+        private long patients;
+        private long insurances;
+        private long appointments;
+        private long rejected;
+        // first ImportResult.MAX_ERRORS only, a broken file must not fill the heap with messages
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+
+        void add(Counts persisted) {
+            patients += persisted.patients;
+            insurances += persisted.insurances;
+            appointments += persisted.appointments;
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < ImportResult.MAX_ERRORS) {
+                errors.add(new ImportResult.RowError(line, message));
+            }
+        }
+    }
+
+    // one JSON object per line, a line that does not parse is rejected on its own
+    private static final class NdjsonRowIterator implements Iterator<SourceRow> {
+
+        private final BufferedReader reader;
+        private final ObjectReader rowReader;
+        private long lines;
+        private String pending;
+
+        private NdjsonRowIterator(BufferedReader reader, JsonMapper jsonMapper) {
+            this.reader = reader;
+            SimpleModule legacySpellings = new SimpleModule()
+                    .addDeserializer(Gender.class, new ParsingDeserializer<>(Gender.class, Gender::parse))
+                    .addDeserializer(BloodGroup.class, new ParsingDeserializer<>(BloodGroup.class, BloodGroup::parse));
+            this.rowReader = jsonMapper.rebuild().addModule(legacySpellings).build().readerFor(PatientImportRow.class);
+            this.pending = readLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public SourceRow next() {
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            String line = pending;
+            long lineNumber = lines;
+            pending = readLine();
+            try {
+                PatientImportRow row = rowReader.readValue(line);
+                return row == null ? new SourceRow(lineNumber, null, "not a JSON object") : new SourceRow(lineNumber, row, null);
+            } catch (JacksonException e) {
+                return new SourceRow(lineNumber, null, "invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        private String readLine() {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                    lines++;
+                } while (line != null && line.isBlank());
+                return line;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // string -> value with the given parser, its IllegalArgumentException becomes a JSON error naming the value
+    private static final class ParsingDeserializer<T> extends FromStringDeserializer<T> {
+
+        private final Function<String, T> parser;
+
+        private ParsingDeserializer(Class<T> type, Function<String, T> parser) {
+            super(type);
+            this.parser = parser;
+        }
+
+        @Override
+        protected T _deserialize(String value, DeserializationContext context) {
+            return parser.apply(value);
+        }
+    }
+
+    /*
+    CSV header:
+    name,gender,birthDate,email,bloodGroup,policyNumber,provider,validUntil,appointmentTime,reason,doctorId
+    -> insurance / appointment columns can be empty
+    -> adjacent rows with the same email add one more appointment to that patient
+     */
+    private static final class CsvRowIterator implements Iterator<SourceRow> {
+
+        private final BufferedReader reader;
+        private String[] pending;
+        private long lines;
+        private long pendingLine;
+
+        private CsvRowIterator(BufferedReader reader) {
+            this.reader = reader;
+            readLine(); // header
+            this.pending = readLine();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        // all lines of the patient are consumed before any column is parsed -> a bad value rejects just this patient
+        @Override
+        public SourceRow next() {
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            long line = pendingLine;
+            List<String[]> patientLines = new ArrayList<>();
+            String[] first = pending;
+            do {
+                patientLines.add(pending);
+                pending = readLine();
+            } while (pending != null && pending[3].equals(first[3]));
+
+            try {
+                return new SourceRow(line, toRow(patientLines), null);
+            } catch (IllegalArgumentException e) {
+                return new SourceRow(line, null, e.getMessage());
+            }
+        }
+
+        private static PatientImportRow toRow(List<String[]> patientLines) {
+            String[] first = patientLines.getFirst();
+            List<PatientImportRow.AppointmentRow> appointments = new ArrayList<>();
+            for (String[] columns : patientLines) {
+                if (!columns[8].isEmpty() || !columns[10].isEmpty()) {
+                    appointments.add(new PatientImportRow.AppointmentRow(
+                            parse("appointmentTime", columns[8], LocalDateTime::parse), emptyToNull(columns[9]),
+                            parse("doctorId", columns[10], Long::valueOf)));
+                }
+            }
+
+            PatientImportRow.InsuranceRow insurance = first[5].isEmpty() ? null
+                    : new PatientImportRow.InsuranceRow(first[5], emptyToNull(first[6]), parse("validUntil", first[7], LocalDate::parse));
+            return new PatientImportRow(first[0], parse("gender", first[1], Gender::parse), parse("birthDate", first[2], LocalDate::parse),
+                    first[3], parse("bloodGroup", first[4], BloodGroup::parse), insurance, appointments);
+        }
+
+        private String[] readLine() {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                    lines++;
+                } while (line != null && line.isBlank());
+                if (line == null) {
+                    return null;
+                }
+                pendingLine = lines;
+                // a quoted value with line breaks (odd number of quotes so far) continues on the next lines, joined with \n
+                StringBuilder record = new StringBuilder(line);
+                long quotes = quotes(line);
+                while (quotes % 2 != 0) {
+                    String next = reader.readLine();
+                    if (next == null) {
+                        break; // unterminated quote, split() takes the rest as the value
+                    }
+                    lines++;
+                    record.append('\n').append(next);
+                    quotes += quotes(next);
+                }
+                return split(record.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static long quotes(String line) {
+            return line.chars().filter(c -> c == '"').count();
+        }
+
+        // simple csv split: handles "quoted, values", "" escapes and quoted line breaks, always returns 11 columns
+        private static String[] split(String line) {
+            String[] columns = new String[11];
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            int index = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (c == ',' && !quoted) {
+                    if (index < columns.length) {
+                        columns[index++] = current.toString().trim();
+                    }
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (index < columns.length) {
+                columns[index++] = current.toString().trim();
+            }
+            while (index < columns.length) {
+                columns[index++] = "";
+            }
+            return columns;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+
+        // empty -> null, anything unparseable -> IllegalArgumentException naming the column
+        private static <T> T parse(String column, String value, Function<String, T> parser) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException("invalid " + column + " '" + value + "'", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.dto.InsurancePolicyValidity;
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.dto.PatientUpdateRequest;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult;
+import com.dhami.hospital.management.System.dto.ScrollResponse;
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.InsuranceRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PatientService {
+
+    public enum PatientOrder { ID, BIRTH_DATE }
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final InsuranceRepository insuranceRepository;
+    private final DoctorAvailabilityIndex availabilityIndex;
+    private final InsurancePolicyIndex policyIndex;
+    private final DirectorySearchIndex searchIndex;
+    private final DonorIndex donorIndex;
+    private final DepartmentStatsService departmentStatsService;
+    private final AppointmentOutbox outbox;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Transactional(readOnly = true)
+    public ScrollResponse<PatientSummary> scrollPatients(PatientOrder order, String token, int size) {
+        KeysetScrollPosition position = ScrollTokens.decode(token);
+        if (order == PatientOrder.BIRTH_DATE) {
+            return scrollByBirthDate(position, size);
+        }
+        Window<PatientSummary> window = patientRepository.findAllByOrderByIdAsc(position, Limit.of(size), PatientSummary.class);
+        return new ScrollResponse<>(window.getContent(), ScrollTokens.next(window));
+    }
+
+    /*
+    birth date ascending, patients without one last (by id), like ORDER BY birth_date, id in postgres
+    keyset pagination cannot seek past a NULL key -> patients with a birth date are scrolled first,
+    then those without; a position without a birthDate key belongs to the second scroll
+     */
+    private ScrollResponse<PatientSummary> scrollByBirthDate(KeysetScrollPosition position, int size) {
+        List<PatientSummary> content = new ArrayList<>(size);
+        KeysetScrollPosition withoutBirthDate = position;
+        if (position.isInitial() || position.getKeys().containsKey("birthDate")) {
+            Window<PatientSummary> born = patientRepository.findAllByBirthDateNotNullOrderByBirthDateAscIdAsc(
+                    position, Limit.of(size), PatientSummary.class);
+            if (born.hasNext()) {
+                return new ScrollResponse<>(born.getContent(), ScrollTokens.next(born));
+            }
+            content.addAll(born.getContent());
+            withoutBirthDate = ScrollPosition.keyset();
+        }
+        if (content.size() == size) {
+            // page full at the end of the first scroll -> the next one starts the second (ids start at 1)
+            return new ScrollResponse<>(content, patientRepository.existsByBirthDateNull()
+                    ? ScrollTokens.encode(ScrollPosition.forward(Map.of("id", 0L))) : null);
+        }
+        Window<PatientSummary> unborn = patientRepository.findAllByBirthDateNullOrderByIdAsc(
+                withoutBirthDate, Limit.of(size - content.size()), PatientSummary.class);
+        content.addAll(unborn.getContent());
+        return new ScrollResponse<>(content, ScrollTokens.next(unborn));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PatientSummary> getPatientSummaries() {
+        return patientRepository.findAllPatientSummaries();
+    }
+
+    @Transactional(readOnly = true)
+    public PatientSummary getByEmail(String email) {
+        return patientRepository.findByEmailIgnoreCase(email.trim())
+                .map(patient -> new PatientSummary(patient.getId(), patient.getName(), patient.getBirthDate(), patient.getBloodGroup()))
+                .orElseThrow(() -> new EntityNotFoundException("Patient not found: " + email));
+    }
+
+    // only the given fields change, a concurrent edit of the same patient is retried on the fresh row instead of overwritten
+    @RetryOnOptimisticLock
+    @Transactional
+    public PatientSummary updatePatient(Long patientId, PatientUpdateRequest request) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new EntityNotFoundException("Patient not found: " + patientId));
+        if (request.name() != null) {
+            if (request.name().isBlank()) {
+                throw new IllegalArgumentException("Patient name must not be blank");
+            }
+            patient.setName(request.name().trim());
+        }
+        if (request.email() != null) {
+            if (request.email().isBlank()) {
+                throw new IllegalArgumentException("Patient email must not be blank");
+            }
+            patient.setEmail(request.email().trim());
+        }
+        if (request.bloodGroup() != null) {
+            patient.setBloodGroup(request.bloodGroup());
+        }
+        return new PatientSummary(patient.getId(), patient.getName(), patient.getBirthDate(), patient.getBloodGroup());
+    }
+
+    /*
+    re-imported patients + their insurance in multi-row upserts (PatientRepository.upsertAll)
+    the rows are written with plain sql, none of the entity listeners see them -> after commit:
+    written / replaced policies leave the insurance cache region, the policy, search and donor indexes get the new rows
+    rows whose email belongs to another patient come back as EMAIL_TAKEN, the rest of the batch is written
+     */
+    @Transactional
+    public List<PatientUpsertResult> upsertPatients(List<PatientImportRow> rows) {
+        for (PatientImportRow row : rows) {
+            if (row.name() == null || row.name().isBlank() || row.birthDate() == null
+                    || row.email() == null || row.email().isBlank()) {
+                throw new IllegalArgumentException("Upsert needs name, birthDate and email: " + row);
+            }
+        }
+        List<PatientUpsertResult> results = patientRepository.upsertAll(rows);
+
+        List<SearchHit> patients = new ArrayList<>();
+        List<DonorProfile> donors = new ArrayList<>();
+        List<InsurancePolicyValidity> policies = new ArrayList<>();
+        List<Long> replacedInsuranceIds = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PatientImportRow row = rows.get(i);
+            PatientUpsertResult result = results.get(i);
+            if (result.patient() == PatientUpsertResult.Outcome.INSERTED
+                    || result.patient() == PatientUpsertResult.Outcome.UPDATED) {
+                patients.add(new SearchHit(result.patientId(), row.name(), row.email()));
+                donors.add(new DonorProfile(result.patientId(), row.bloodGroup(), row.birthDate()));
+            }
+            if (result.insurance() != null && result.insurance() != PatientUpsertResult.Outcome.UNCHANGED) {
+                policies.add(new InsurancePolicyValidity(result.insuranceId(), row.insurance().policyNumber(),
+                        row.insurance().validUntil()));
+            }
+            if (result.replacedInsuranceId() != null) {
+                replacedInsuranceIds.add(result.replacedInsuranceId());
+            }
+        }
+
+        AfterCommit.run(() -> {
+            Cache cache = entityManagerFactory.getCache();
+            policies.forEach(policy -> {
+                cache.evict(Insurance.class, policy.insuranceId());
+                policyIndex.put(policy);
+            });
+            replacedInsuranceIds.forEach(insuranceId -> {
+                cache.evict(Insurance.class, insuranceId);
+                policyIndex.remove(insuranceId);
+            });
+            patients.forEach(searchIndex.patients()::put);
+            donors.forEach(donorIndex::put);
+        });
+        return results;
+    }
+
+    /*
+    patients + their appointments + their insurance without loading any of them
+    (deleteAll(patients) would load every patient, cascade-load every appointment and delete row by row)
+    -> DELETE appointments, DELETE patients, DELETE now orphaned insurances
+    the insurance cache region is invalidated by hibernate for the bulk delete, in-memory indexes after commit,
+    departments of the affected doctors are recomputed before commit, upcoming appointments are announced as cancelled
+     */
+    @Transactional
+    public int deletePatients(Collection<Long> patientIds) {
+        if (patientIds == null || patientIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> insuranceIds = patientRepository.findInsuranceIdsByPatientIds(patientIds);
+        List<AppointmentResponse> upcoming = appointmentRepository.findUpcomingByPatientIds(
+                patientIds, LocalDate.now().atStartOfDay());
+
+        departmentStatsService.doctorsChanged(appointmentRepository.findDoctorIdsByPatientIds(patientIds));
+        int appointments = appointmentRepository.deleteAllByPatientIds(patientIds);
+        int patients = patientRepository.deleteAllByIds(patientIds);
+        if (!insuranceIds.isEmpty()) {
+            insuranceRepository.deleteAllByIds(insuranceIds);
+        }
+
+        outbox.appendAll(upcoming.stream().map(AppointmentEvent::cancelled).toList());
+
+        AfterCommit.run(() -> {
+            upcoming.forEach(appointment -> availabilityIndex.remove(appointment.doctorId(), appointment.appointmentTime()));
+            insuranceIds.forEach(policyIndex::remove);
+            patientIds.forEach(searchIndex.patients()::remove);
+            patientIds.forEach(donorIndex::remove);
+        });
+        log.info("deleted {} patients with {} appointments and {} insurances", patients, appointments, insuranceIds.size());
+        return patients;
+    }
+}
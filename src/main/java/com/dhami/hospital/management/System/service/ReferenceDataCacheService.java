@@ -0,0 +1,50 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/*
+second level cache of doctor / department / insurance
+READ_WRITE regions are kept in sync by hibernate on every entity write,
+explicit eviction is only needed after changes made outside this app -> evictAll (DELETE /admin/cache)
+this app's own native sql evicts what it wrote itself (PatientService.upsertPatients)
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+        sessionFactory().getCache().evictQueryRegions();
+    }
+
+    public List<CacheRegionStats> regionStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? null : new CacheRegionStats(region,
+                            regionStatistics.getHitCount(),
+                            regionStatistics.getMissCount(),
+                            regionStatistics.getPutCount(),
+                            regionStatistics.getElementCountInMemory());
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
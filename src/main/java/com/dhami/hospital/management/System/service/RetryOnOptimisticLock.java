@@ -0,0 +1,24 @@
+package com.dhami.hospital.management.System.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.resilience.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+@Version conflict -> the whole method runs again (goes on top of @Transactional: every attempt is a new transaction)
+attempts / backoff from hospital.optimistic-lock.* (application.properties)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(includes = OptimisticLockingFailureException.class,
+        maxRetriesString = "${hospital.optimistic-lock.max-retries:4}",
+        delayString = "${hospital.optimistic-lock.retry-delay:25ms}",
+        jitterString = "${hospital.optimistic-lock.retry-jitter:10ms}", multiplier = 2)
+public @interface RetryOnOptimisticLock {
+}
@@ -0,0 +1,166 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.AvailableSlot;
+import com.dhami.hospital.management.System.dto.BookingRequest;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/*
+slot booking:
+1. fast reject from the in-memory index (no db round trip for obviously taken slots)
+2. SELECT ... FOR UPDATE on the doctor row -> concurrent bookings of one doctor queue up here
+3. overlap re-check in the database (source of truth), then insert
+4. index is updated only after commit
+created / moved / cancelled bookings also write an outbox event in the same transaction (OutboxRelay delivers it)
+reschedule / cancel change a loaded appointment -> a concurrent change of it fails the version check on commit,
+the whole method (new transaction, fresh read, same checks) is retried with backoff a few times
+ */
+@Service
+@RequiredArgsConstructor
+public class SchedulingService {
+
+    private final DoctorAvailabilityIndex availabilityIndex;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentOutbox outbox;
+
+    @Value("${hospital.scheduling.search-days:30}")
+    private int searchDays;
+
+    @Transactional
+    public AppointmentResponse book(BookingRequest request) {
+        LocalDateTime start = request.appointmentTime();
+        if (start == null || start.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Appointment time must be in the future");
+        }
+        if (!availabilityIndex.isWithinWorkingHours(start)) {
+            throw new IllegalArgumentException("Appointment time is outside working hours");
+        }
+        if (!availabilityIndex.isFree(request.doctorId(), start)) {
+            throw new SlotUnavailableException("Doctor " + request.doctorId() + " is already booked at " + start);
+        }
+
+        Doctor doctor = doctorRepository.findByIdForUpdate(request.doctorId())
+                .orElseThrow(() -> new EntityNotFoundException("Doctor not found: " + request.doctorId()));
+
+        Duration slot = availabilityIndex.slotLength();
+        if (appointmentRepository.existsOverlapping(doctor.getId(), start.minus(slot), start.plus(slot))) {
+            throw new SlotUnavailableException("Doctor " + request.doctorId() + " is already booked at " + start);
+        }
+        if (!patientRepository.existsById(request.patientId())) {
+            throw new EntityNotFoundException("Patient not found: " + request.patientId());
+        }
+
+        Appointment appointment = appointmentRepository.save(Appointment.builder()
+                .appointmentTime(start)
+                .reason(request.reason())
+                .doctor(doctor)
+                .patient(patientRepository.getReferenceById(request.patientId()))
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                availabilityIndex.add(doctor.getId(), start, appointment.getId());
+            }
+        });
+        AppointmentResponse booked = AppointmentResponse.from(appointment);
+        outbox.append(AppointmentEvent.created(booked));
+        return booked;
+    }
+
+    // same doctor, new start: same checks as a booking, the appointment itself does not count as a conflict
+    @RetryOnOptimisticLock
+    @Transactional
+    public AppointmentResponse reschedule(Long appointmentId, LocalDateTime start) {
+        if (start == null || start.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Appointment time must be in the future");
+        }
+        if (!availabilityIndex.isWithinWorkingHours(start)) {
+            throw new IllegalArgumentException("Appointment time is outside working hours");
+        }
+        Appointment appointment = findUpcoming(appointmentId);
+        AppointmentResponse before = AppointmentResponse.from(appointment);
+        if (start.equals(before.appointmentTime())) {
+            return before;
+        }
+        Long doctorId = before.doctorId();
+        if (!availabilityIndex.isFree(doctorId, start, appointmentId)) {
+            throw new SlotUnavailableException("Doctor " + doctorId + " is already booked at " + start);
+        }
+
+        doctorRepository.findByIdForUpdate(doctorId)
+                .orElseThrow(() -> new EntityNotFoundException("Doctor not found: " + doctorId));
+        Duration slot = availabilityIndex.slotLength();
+        if (appointmentRepository.existsOverlappingOther(doctorId, start.minus(slot), start.plus(slot), appointmentId)) {
+            throw new SlotUnavailableException("Doctor " + doctorId + " is already booked at " + start);
+        }
+
+        appointment.setAppointmentTime(start);
+        outbox.append(AppointmentEvent.moved(before, doctorId, start));
+        AfterCommit.run(() -> {
+            availabilityIndex.remove(doctorId, before.appointmentTime());
+            availabilityIndex.add(doctorId, start, appointmentId);
+        });
+        return AppointmentResponse.from(appointment);
+    }
+
+    @RetryOnOptimisticLock
+    @Transactional
+    public void cancel(Long appointmentId) {
+        Appointment appointment = findUpcoming(appointmentId);
+        AppointmentResponse cancelled = AppointmentResponse.from(appointment);
+        appointmentRepository.delete(appointment);
+        outbox.append(AppointmentEvent.cancelled(cancelled));
+        AfterCommit.run(() -> availabilityIndex.remove(cancelled.doctorId(), cancelled.appointmentTime()));
+    }
+
+    private Appointment findUpcoming(Long appointmentId) {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new EntityNotFoundException("Appointment not found: " + appointmentId));
+        if (appointment.getAppointmentTime().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Appointment " + appointmentId + " is in the past");
+        }
+        return appointment;
+    }
+
+    public Optional<AvailableSlot> nextFreeSlot(Long doctorId, LocalDateTime from) {
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new EntityNotFoundException("Doctor not found: " + doctorId));
+        return findSlot(doctor, from);
+    }
+
+    // earliest free slot over all doctors of a specialization (doctors come from the query cache)
+    public Optional<AvailableSlot> nextFreeSlotBySpecialization(String specialization, LocalDateTime from) {
+        return doctorRepository.findBySpecialization(specialization).stream()
+                .map(doctor -> findSlot(doctor, from))
+                .flatMap(Optional::stream)
+                .min(Comparator.comparing(AvailableSlot::start));
+    }
+
+    private Optional<AvailableSlot> findSlot(Doctor doctor, LocalDateTime from) {
+        LocalDateTime notBefore = Objects.requireNonNullElseGet(from, LocalDateTime::now);
+        LocalDateTime start = availabilityIndex.nextFreeSlot(doctor.getId(), notBefore, notBefore.plusDays(searchDays));
+        return Optional.ofNullable(start)
+                .map(slot -> new AvailableSlot(doctor.getId(), doctor.getName(), slot, slot.plus(availabilityIndex.slotLength())));
+    }
+}
@@ -0,0 +1,88 @@
+package com.dhami.hospital.management.System.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/*
+keyset position <-> opaque token for the REST layer
+position keys {birthDate=1990-05-10, id=12} -> "birthDate:D:1990-05-10|id:L:12" -> base64url
+ */
+final class ScrollTokens {
+
+    private ScrollTokens() {
+    }
+
+    static KeysetScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (String part : raw.split("\\|")) {
+            String[] kv = part.split(":", 3);
+            if (kv.length != 3) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            keys.put(kv[0], switch (kv[1]) {
+                case "L" -> Long.valueOf(kv[2]);
+                case "D" -> parse(kv[2], LocalDate::parse);
+                case "T" -> parse(kv[2], LocalDateTime::parse);
+                default -> throw new IllegalArgumentException("Invalid continuation token");
+            });
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    static String next(Window<?> window) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+        return encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+    }
+
+    static String encode(KeysetScrollPosition position) {
+        StringJoiner raw = new StringJoiner("|");
+        position.getKeys().forEach((key, value) -> raw.add(key + ":" + typeOf(value) + ":" + value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // a tampered date -> 400 like any other malformed token, not a 500 (Long.valueOf already throws an IllegalArgumentException)
+    private static <T> T parse(String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof Long) {
+            return "L";
+        }
+        if (value instanceof LocalDate) {
+            return "D";
+        }
+        if (value instanceof LocalDateTime) {
+            return "T";
+        }
+        // a NULL sort key cannot be continued from, such columns are scrolled in two parts (see PatientService)
+        throw new IllegalStateException("Unsupported keyset value " + (value == null ? null : value.getClass()));
+    }
+}
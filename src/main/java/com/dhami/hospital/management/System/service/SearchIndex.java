@@ -0,0 +1,254 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/*
+In-memory inverted index for typeahead search, one instance per searchable entity (see DirectorySearchIndex).
+-> every document is reduced to lowercase, accent free words: "José Smith-Lee" -> "jose smith lee",
+   letters and digits are separate words ("smith4711" -> "smith 4711", no million one-off words from emails)
+-> word -> ids of the documents that contain it, words kept sorted so "all words starting with x" is one subMap range
+-> query "smi jo": the term matching the fewest documents drives the scan (exact word first, then its prefix range),
+   every document it yields is checked against the other terms, collecting stops after MAX_MATCHES documents
+   that contain all of them -> cost is bounded by the rarest term, not by the table
+   (capping the rarest term's documents before the check would lose "john smith" among thousands of Johns and Smiths)
+ranking: per term exact word (2) > word prefix (1), then shorter name, then name
+ */
+public class SearchIndex {
+
+    // very unspecific queries ("a") stop collecting here, exact word matches are always collected first
+    static final int MAX_MATCHES = 2_000;
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(match -> match.hit().name().length())
+            .thenComparing(match -> match.hit().name())
+            .thenComparing(match -> match.hit().id());
+
+    private final Function<SearchHit, String> searchableText;
+    private final NavigableMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    public SearchIndex(Function<SearchHit, String> searchableText) {
+        this.searchableText = searchableText;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        String[] terms = normalized.split(" ");
+
+        String driver = rarest(terms);
+
+        List<Match> matches = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        LongPredicate check = id -> {
+            if (seen.add(id)) { // a document can be under several words of the prefix range
+                Document document = documents.get(id);
+                int score = document == null ? 0 : score(document.words(), terms);
+                if (score > 0) {
+                    matches.add(new Match(document.hit(), score));
+                }
+            }
+            return matches.size() < MAX_MATCHES;
+        };
+        Postings exact = postings.get(driver);
+        boolean more = exact == null || exact.forEachWhile(check);
+        for (Iterator<Postings> prefixed = prefixRange(driver).iterator(); more && prefixed.hasNext(); ) {
+            more = prefixed.next().forEachWhile(check);
+        }
+
+        matches.sort(RANKING);
+        return matches.stream().limit(limit).map(Match::hit).toList();
+    }
+
+    // readers never lock the index, writes are serialized (old words of a document must be known to drop them)
+    public synchronized void put(SearchHit hit) {
+        Document document = new Document(hit, normalize(searchableText.apply(hit)));
+        Document previous = documents.put(hit.id(), document);
+        Set<String> words = words(document);
+        Set<String> previousWords = previous == null ? Set.of() : words(previous);
+        for (String word : previousWords) {
+            if (!words.contains(word)) {
+                unlink(word, hit.id());
+            }
+        }
+        for (String word : words) {
+            if (!previousWords.contains(word)) {
+                postings.computeIfAbsent(word, key -> new Postings()).add(hit.id());
+            }
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            words(previous).forEach(word -> unlink(word, id));
+        }
+    }
+
+    public synchronized void replaceAll(Collection<SearchHit> hits) {
+        documents.clear();
+        postings.clear();
+        hits.forEach(this::put);
+    }
+
+    // the term matching the fewest documents drives the scan ("john smi" -> smi when there are fewer Smiths)
+    // longer terms are usually rarer, counted first they cap the counting of the short ones
+    private String rarest(String[] terms) {
+        if (terms.length == 1) {
+            return terms[0];
+        }
+        String[] byLength = terms.clone();
+        Arrays.sort(byLength, Comparator.comparingInt(String::length).reversed());
+        String rarest = byLength[0];
+        int fewest = Integer.MAX_VALUE;
+        for (String term : byLength) {
+            int matching = countUpTo(term, fewest);
+            if (matching < fewest) {
+                rarest = term;
+                fewest = matching;
+            }
+        }
+        return rarest;
+    }
+
+    // documents containing the term as a word or word prefix, counting stops at 'cap'
+    private int countUpTo(String term, int cap) {
+        Postings exact = postings.get(term);
+        int count = exact == null ? 0 : exact.size();
+        for (Postings prefixed : prefixRange(term)) {
+            if (count >= cap) {
+                break;
+            }
+            count += prefixed.size();
+        }
+        return count;
+    }
+
+    // words that start with the term, the term itself excluded
+    private Collection<Postings> prefixRange(String term) {
+        return postings.subMap(term, false, term + Character.MAX_VALUE, false).values();
+    }
+
+    // lowercase, accents dropped, anything that is not a letter or digit separates words, so does letter <-> digit
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        boolean digits = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                boolean digit = Character.isDigit(c);
+                if ((separator || digit != digits) && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                separator = false;
+                digits = digit;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // 0 when one of the terms is not the start of any word
+    private static int score(String words, String[] terms) {
+        int score = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int at = words.indexOf(term); at >= 0 && best < 2; at = words.indexOf(term, at + 1)) {
+                if (at == 0 || words.charAt(at - 1) == ' ') {
+                    int end = at + term.length();
+                    best = end == words.length() || words.charAt(end) == ' ' ? 2 : 1;
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private void unlink(String word, Long id) {
+        Postings ids = postings.get(word);
+        if (ids != null && ids.remove(id)) {
+            postings.remove(word, ids);
+        }
+    }
+
+    private static Set<String> words(Document document) {
+        return document.words().isEmpty() ? Set.of() : new HashSet<>(Arrays.asList(document.words().split(" ")));
+    }
+
+    private record Document(SearchHit hit, String words) {
+    }
+
+    private record Match(SearchHit hit, int score) {
+    }
+
+    // ids of one word, plain long[] (a million patients x a few words, boxed sets would cost several times more)
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        // true when this was the last id
+        synchronized boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    break;
+                }
+            }
+            return size == 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        // false once the action asked to stop; writers of this word wait for the scan (a lookup + score per id)
+        synchronized boolean forEachWhile(LongPredicate action) {
+            for (int i = 0; i < size; i++) {
+                if (!action.test(ids[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dhami.hospital.management.System.service;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+// typeahead over DirectorySearchIndex, the database is only read once on startup
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final DirectorySearchIndex searchIndex;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        searchIndex.patients().replaceAll(patientRepository.findAllSearchHits());
+        searchIndex.doctors().replaceAll(doctorRepository.findAllSearchHits());
+        log.info("search index rebuilt: {} patients, {} doctors in {} ms", searchIndex.patients().size(),
+                searchIndex.doctors().size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    public List<SearchHit> searchPatients(String query, int limit) {
+        return searchIndex.patients().search(query, Math.clamp(limit, 1, MAX_LIMIT));
+    }
+
+    public List<SearchHit> searchDoctors(String query, int limit) {
+        return searchIndex.doctors().search(query, Math.clamp(limit, 1, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.dhami.hospital.management.System.service;
+
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
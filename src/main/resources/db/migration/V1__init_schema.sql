@@ -0,0 +1,124 @@
+-- schema owned by flyway, hibernate only validates it against the entities (spring.jpa.hibernate.ddl-auto=validate)
+-- a change to an entity mapping needs a new V<n>__*.sql next to this one, applied migrations are never edited
+
+-- ids come from pooled sequences (allocationSize = 50 -> increment by 50)
+CREATE SEQUENCE patient_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE doctor_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE appointment_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE department_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE insurance_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE insurance (
+    id            BIGINT       NOT NULL,
+    version       BIGINT       NOT NULL DEFAULT 0,
+    policy_number VARCHAR(50)  NOT NULL,
+    provider      VARCHAR(100) NOT NULL,
+    valid_until   DATE         NOT NULL,
+    status        VARCHAR(20)  NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT insurance_pkey PRIMARY KEY (id),
+    CONSTRAINT insurance_policy_number_key UNIQUE (policy_number),
+    CONSTRAINT insurance_status_check CHECK (status IN ('ACTIVE', 'EXPIRING', 'EXPIRED'))
+);
+CREATE INDEX idx_insurance_valid_until ON insurance (valid_until);
+
+CREATE TABLE patient (
+    id                   BIGINT       NOT NULL,
+    version              BIGINT       NOT NULL DEFAULT 0,
+    name                 VARCHAR(40)  NOT NULL,
+    birth_date           DATE,
+    email                VARCHAR(255) NOT NULL,
+    gender               VARCHAR(255),
+    blood_group          VARCHAR(255),
+    patient_insurance_id BIGINT,
+    CONSTRAINT patient_pkey PRIMARY KEY (id),
+    CONSTRAINT patient_email_key UNIQUE (email),
+    CONSTRAINT patient_patient_insurance_id_key UNIQUE (patient_insurance_id),
+    CONSTRAINT unique_patient_name_birthdate UNIQUE (name, birth_date),
+    CONSTRAINT fk_patient_insurance FOREIGN KEY (patient_insurance_id) REFERENCES insurance (id)
+);
+CREATE INDEX idx_patient_birth_date ON patient (birth_date);
+-- case-insensitive email lookup (PatientRepository.findByEmailIgnoreCase), JPA @Index cannot declare expressions
+CREATE INDEX idx_patient_email_lower ON patient (lower(email));
+
+CREATE TABLE doctor (
+    id             BIGINT       NOT NULL,
+    name           VARCHAR(100) NOT NULL,
+    specialization VARCHAR(100),
+    email          VARCHAR(100),
+    CONSTRAINT doctor_pkey PRIMARY KEY (id),
+    CONSTRAINT doctor_email_key UNIQUE (email)
+);
+
+CREATE TABLE department (
+    id             BIGINT       NOT NULL,
+    version        BIGINT       NOT NULL DEFAULT 0,
+    name           VARCHAR(100) NOT NULL,
+    head_doctor_id BIGINT,
+    CONSTRAINT department_pkey PRIMARY KEY (id),
+    CONSTRAINT department_name_key UNIQUE (name),
+    CONSTRAINT department_head_doctor_id_key UNIQUE (head_doctor_id),
+    CONSTRAINT fk_department_head_doctor FOREIGN KEY (head_doctor_id) REFERENCES doctor (id)
+);
+
+CREATE TABLE my_dpt_doctors (
+    dpt_id    BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    CONSTRAINT my_dpt_doctors_pkey PRIMARY KEY (doctor_id, dpt_id),
+    CONSTRAINT fk_my_dpt_doctors_department FOREIGN KEY (dpt_id) REFERENCES department (id),
+    CONSTRAINT fk_my_dpt_doctors_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id)
+);
+
+-- appointment: monthly range partitions on appointment_time (AppointmentPartitionMaintenance creates / detaches them)
+-- the primary key has to contain the partition key -> (id, appointment_time), ids still come from appointment_seq
+CREATE TABLE appointment (
+    id               BIGINT       NOT NULL,
+    version          BIGINT       NOT NULL DEFAULT 0,
+    appointment_time TIMESTAMP(6) NOT NULL,
+    reason           VARCHAR(500),
+    doctor_id        BIGINT       NOT NULL,
+    patient_id       BIGINT       NOT NULL,
+    CONSTRAINT appointment_pkey PRIMARY KEY (id, appointment_time),
+    CONSTRAINT unique_doctor_appointment_time UNIQUE (doctor_id, appointment_time),
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (id),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES patient (id)
+) PARTITION BY RANGE (appointment_time);
+CREATE INDEX idx_appointment_patient_time ON appointment (patient_id, appointment_time);
+-- months without a partition (yet) land here, the maintenance job moves them out once their month is created
+CREATE TABLE appointment_default PARTITION OF appointment DEFAULT;
+
+-- department dashboard read model (DepartmentStatsService)
+CREATE TABLE department_stats (
+    department_id                 BIGINT       NOT NULL,
+    department_name               VARCHAR(100) NOT NULL,
+    doctor_count                  BIGINT       NOT NULL,
+    appointment_count             BIGINT       NOT NULL,
+    head_doctor_id                BIGINT,
+    head_doctor_name              VARCHAR(100),
+    head_doctor_appointment_count BIGINT       NOT NULL,
+    refreshed_at                  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT department_stats_pkey PRIMARY KEY (department_id)
+);
+
+CREATE TABLE department_daily_stats (
+    department_id     BIGINT NOT NULL,
+    appointment_date  DATE   NOT NULL,
+    appointment_count BIGINT NOT NULL,
+    CONSTRAINT department_daily_stats_pkey PRIMARY KEY (appointment_date, department_id)
+);
+
+-- transactional outbox of appointment events (OutboxRelay)
+CREATE TABLE outbox_event (
+    id              BIGINT        NOT NULL,
+    aggregate_type  VARCHAR(50)   NOT NULL,
+    aggregate_id    BIGINT        NOT NULL,
+    event_type      VARCHAR(50)   NOT NULL,
+    payload         VARCHAR(2000) NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6),
+    dead            BOOLEAN       NOT NULL,
+    last_error      VARCHAR(1000),
+    CONSTRAINT outbox_event_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,29 @@
+-- patient.gender / patient.blood_group were free text, now the Gender / BloodGroup enums stored by name
+-- common spellings are normalized first ('f', ' male', 'O+', 'ab-ve', 'B pos'),
+-- anything else is left alone and fails the check constraints below -> fix the row, then migrate again
+UPDATE patient
+SET gender = CASE upper(trim(gender))
+                 WHEN 'M' THEN 'MALE'
+                 WHEN 'F' THEN 'FEMALE'
+                 ELSE upper(trim(gender))
+             END
+WHERE gender IS NOT NULL;
+
+WITH normalized AS (
+    SELECT id, upper(regexp_replace(blood_group, '[\s_]', '', 'g')) AS compact
+    FROM patient
+    WHERE blood_group IS NOT NULL
+)
+UPDATE patient p
+SET blood_group = substring(n.compact FROM '^(AB|A|B|O)')
+                  || CASE WHEN n.compact ~ '^(AB|A|B|O)(\+|\+VE|POS|POSITIVE)$' THEN '_POSITIVE' ELSE '_NEGATIVE' END
+FROM normalized n
+WHERE p.id = n.id
+  AND n.compact ~ '^(AB|A|B|O)(\+|\+VE|POS|POSITIVE|-|-VE|NEG|NEGATIVE)$';
+
+ALTER TABLE patient
+    ALTER COLUMN gender TYPE VARCHAR(10),
+    ALTER COLUMN blood_group TYPE VARCHAR(11),
+    ADD CONSTRAINT patient_gender_check CHECK (gender IN ('MALE', 'FEMALE', 'OTHER')),
+    ADD CONSTRAINT patient_blood_group_check CHECK (blood_group IN ('O_NEGATIVE', 'O_POSITIVE', 'A_NEGATIVE', 'A_POSITIVE',
+                                                                   'B_NEGATIVE', 'B_POSITIVE', 'AB_NEGATIVE', 'AB_POSITIVE'));
@@ -0,0 +1,4 @@
+-- outbox ids are no longer pooled (OutboxEvent allocationSize 1): one nextval per event, in the writing transaction
+-- -> two changes to one appointment on different instances get ids in the order they committed
+-- ids already handed out by a pooled block are below the sequence's current value, nextval stays above them
+ALTER SEQUENCE outbox_event_seq INCREMENT BY 1;
@@ -0,0 +1,3 @@
+-- GET /patients?orderBy=BIRTH_DATE lists patients without a birth date last, by id (PatientService.scrollByBirthDate)
+-- partial index -> that second scroll seeks on id without reading the patients that have a birth date
+CREATE INDEX idx_patient_no_birth_date ON patient (id) WHERE birth_date IS NULL;
@@ -0,0 +1,3 @@
+-- OutboxRelay skips appointments with an event backing off (NOT IN subquery on every poll)
+-- -> only the few failed events are indexed, the delivered ones never have next_attempt_at set
+CREATE INDEX idx_outbox_event_backing_off ON outbox_event (aggregate_id) WHERE next_attempt_at IS NOT NULL AND dead = false;
@@ -0,0 +1,139 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.service.AppointmentPartitionMaintenance;
+import com.dhami.hospital.management.System.service.PatientService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// months far away from everything else in the database, so creating / detaching them does not disturb other tests
+@SpringBootTest
+public class AppointmentPartitionTests {
+
+    @Autowired
+    private AppointmentPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Test
+    public void testStartupCreatesCurrentAndUpcomingMonths() {
+        List<String> partitions = partitionMaintenance.attachedPartitions();
+        assertTrue(partitions.contains(AppointmentPartitionMaintenance.DEFAULT_PARTITION));
+        assertTrue(partitions.contains(AppointmentPartitionMaintenance.partitionName(YearMonth.now())));
+        assertTrue(partitions.contains(AppointmentPartitionMaintenance.partitionName(YearMonth.now().plusMonths(1))));
+    }
+
+    @Test
+    public void testNewPartitionTakesOverRowsFromDefault() {
+        YearMonth month = YearMonth.of(ThreadLocalRandom.current().nextInt(2100, 2200), 5);
+        Long id = persist(month.atDay(3).atTime(10, 0));
+        assertEquals(AppointmentPartitionMaintenance.DEFAULT_PARTITION, partitionOf(id));
+
+        assertEquals(1, partitionMaintenance.createPartitions(month, month));
+        assertEquals(AppointmentPartitionMaintenance.partitionName(month), partitionOf(id));
+        assertEquals(0, partitionMaintenance.createPartitions(month, month)); // already there
+
+        // the database outlives the test run, a stray far future month would show up in other plans
+        jdbcTemplate.execute("DROP TABLE " + AppointmentPartitionMaintenance.partitionName(month));
+    }
+
+    @Test
+    public void testOldMonthsAreDetached() {
+        YearMonth month = YearMonth.of(ThreadLocalRandom.current().nextInt(1900, 1950), 1);
+        String partition = AppointmentPartitionMaintenance.partitionName(month);
+        partitionMaintenance.createPartitions(month, month);
+        Long id = persist(month.atDay(10).atTime(9, 0));
+
+        assertEquals(List.of(partition), partitionMaintenance.detachBefore(month.plusMonths(1)));
+        assertFalse(partitionMaintenance.attachedPartitions().contains(partition));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment WHERE id = ?", Integer.class, id));
+        // the rows are still there, in the archive table
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition + " WHERE id = ?", Integer.class, id));
+
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    @Test
+    public void testPatientAndDoctorWithArchivedAppointmentsCanBeDeleted() {
+        YearMonth month = YearMonth.of(ThreadLocalRandom.current().nextInt(1950, 2000), 2);
+        String partition = AppointmentPartitionMaintenance.partitionName(month);
+        partitionMaintenance.createPartitions(month, month);
+        Long[] ids = transactionTemplate.execute(status -> {
+            Doctor doctor = new Doctor();
+            doctor.setName("Dr. Archive " + UUID.randomUUID());
+            doctor.setEmail(UUID.randomUUID() + "@archive.example.com");
+            entityManager.persist(doctor);
+            Patient patient = new Patient();
+            patient.setName("Archive " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.OTHER);
+            patient.setBirthDate(LocalDate.of(1940, 1, 1));
+            patient.setEmail(UUID.randomUUID() + "@archive.example.com");
+            entityManager.persist(patient);
+            return new Long[]{doctor.getId(), patient.getId()};
+        });
+        Long appointmentId = persist(month.atDay(12).atTime(11, 0), ids[0], ids[1]);
+        assertEquals(List.of(partition), partitionMaintenance.detachBefore(month.plusMonths(1)));
+
+        // no foreign key from the archive -> the set based delete and a plain entity delete both go through
+        assertEquals(1, patientService.deletePatients(List.of(ids[1])));
+        doctorRepository.deleteById(ids[0]);
+        assertFalse(doctorRepository.existsById(ids[0]));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition + " WHERE id = ?",
+                Integer.class, appointmentId));
+
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    private Long persist(LocalDateTime appointmentTime) {
+        return persist(appointmentTime, 1L, 1L);
+    }
+
+    private Long persist(LocalDateTime appointmentTime, Long doctorId, Long patientId) {
+        return transactionTemplate.execute(status -> {
+            Appointment appointment = Appointment.builder()
+                    .appointmentTime(appointmentTime)
+                    .reason("Partition test")
+                    .doctor(entityManager.getReference(Doctor.class, doctorId))
+                    .patient(entityManager.getReference(Patient.class, patientId))
+                    .build();
+            entityManager.persist(appointment);
+            return appointment.getId();
+        });
+    }
+
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM appointment WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,159 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.repository.InsuranceRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.AppointmentService;
+import com.dhami.hospital.management.System.service.InsuranceService;
+import com.dhami.hospital.management.System.service.PatientService;
+import com.dhami.hospital.management.System.service.SlotUnavailableException;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// bulk operations must stay set based: a fixed number of statements whatever the number of rows
+@SpringBootTest
+public class BulkOperationsTests {
+
+    private static final int APPOINTMENTS = 20;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private InsuranceService insuranceService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testDeletePatientsWithoutLoadingAppointments() {
+        Doctor doctor = newDoctor();
+        Patient patient = newPatient(doctor, LocalDateTime.now().plusYears(3));
+        String policyNumber = patient.getInsurance().getPolicyNumber();
+        assertTrue(insuranceService.isValid(policyNumber));
+
+        QueryCounter.reset();
+        int deleted = patientService.deletePatients(List.of(patient.getId()));
+        System.out.println("delete patient statements: " + QueryCounter.statements());
+
+        assertEquals(1, deleted);
+        // 3 selects (insurance ids, upcoming appointments, doctors) + 3 deletes + departments of those doctors (none here)
+        assertEquals(7, withoutOutbox(QueryCounter.statements()).size());
+        // + the cancelled events, one batched insert for all upcoming appointments
+        assertEquals(1, QueryCounter.statements().stream().filter(sql -> sql.startsWith("insert into outbox_event")).count());
+        assertFalse(patientRepository.existsById(patient.getId()));
+        assertFalse(insuranceService.isValid(policyNumber));
+        assertTrue(appointmentRepository.findHistoryRowsByPatientIds(List.of(patient.getId())).isEmpty());
+    }
+
+    @Test
+    public void testReassignAndPurgeRunSetBased() {
+        Doctor from = newDoctor();
+        Doctor to = newDoctor();
+        // older than anything else in the test database -> the purge below removes only these rows
+        Patient patient = newPatient(from, LocalDateTime.of(1900, 1, 1, 9, 0));
+
+        QueryCounter.reset();
+        assertEquals(APPOINTMENTS, appointmentService.reassignDoctor(from.getId(), to.getId()));
+        // 2 doctor row locks + conflict check + upcoming appointments (outbox) + one UPDATE + departments of both doctors (none here)
+        assertEquals(6, QueryCounter.count());
+        assertEquals(APPOINTMENTS, appointmentRepository.findSlotViewsByDoctorId(to.getId()).size());
+
+        QueryCounter.reset();
+        assertEquals(APPOINTMENTS, appointmentService.purgeBefore(LocalDateTime.of(1900, 1, 1, 9, 0).plusDays(APPOINTMENTS)));
+        assertEquals(1, QueryCounter.statements().stream().filter(sql -> sql.startsWith("delete from appointment")).count());
+        assertTrue(appointmentRepository.findHistoryRowsByPatientIds(List.of(patient.getId())).isEmpty());
+    }
+
+    @Test
+    public void testReassignRefusesOverlappingAppointmentsTheIndexDoesNotKnow() {
+        Doctor from = newDoctor();
+        Doctor to = newDoctor();
+        // past appointments, not in DoctorAvailabilityIndex; different starts, so no unique key violation either
+        LocalDateTime start = LocalDateTime.of(1950, 3, 1, 10, 0).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+        newPatient(from, start);
+        newPatient(to, start.plusDays(APPOINTMENTS - 1).plusMinutes(15));
+
+        assertThrows(SlotUnavailableException.class, () -> appointmentService.reassignDoctor(from.getId(), to.getId()));
+        assertEquals(APPOINTMENTS, appointmentRepository.findSlotViewsByDoctorId(from.getId()).size());
+    }
+
+    // outbox inserts + their sequence calls, one nextval per event (OutboxEvent ids are not pooled)
+    private static List<String> withoutOutbox(List<String> statements) {
+        return statements.stream().filter(sql -> !sql.contains("outbox_event")).toList();
+    }
+
+    private Doctor newDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Bulk " + UUID.randomUUID());
+        doctor.setSpecialization("Bulk");
+        doctor.setEmail(UUID.randomUUID() + "@bulk.example.com");
+        return doctorRepository.save(doctor);
+    }
+
+    private Patient newPatient(Doctor doctor, LocalDateTime firstAppointment) {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName("Bulk " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.MALE);
+            patient.setBirthDate(LocalDate.of(1990, 1, 1));
+            patient.setEmail(UUID.randomUUID() + "@bulk.example.com");
+            patient.setBloodGroup(BloodGroup.O_POSITIVE);
+            patient.setInsurance(Insurance.builder()
+                    .policyNumber("BULK-" + UUID.randomUUID())
+                    .provider("Bulk Provider")
+                    .validUntil(LocalDate.now().plusYears(1))
+                    .build());
+            entityManager.persist(patient);
+            for (int i = 0; i < APPOINTMENTS; i++) {
+                entityManager.persist(Appointment.builder()
+                        .appointmentTime(firstAppointment.plusDays(i))
+                        .reason("Bulk test")
+                        .doctor(doctor)
+                        .patient(patient)
+                        .build());
+            }
+            return patient;
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the entity classes are enhanced at build time (hibernate-maven-plugin), these fail when run from unenhanced classes
+@SpringBootTest
+public class BytecodeEnhancementTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testInsuranceLoadsWithoutItsPatient() {
+        Patient patient = newPatient();
+        Long insuranceId = patient.getInsurance().getId();
+        entityManagerFactory.getCache().evict(Insurance.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            QueryCounter.reset();
+            Insurance insurance = entityManager.find(Insurance.class, insuranceId);
+            assertEquals(1, QueryCounter.count());
+            assertFalse(Hibernate.isPropertyInitialized(insurance, "patient"));
+
+            assertEquals(patient.getId(), insurance.getPatient().getId());
+            assertEquals(patient.getName(), insurance.getPatient().getName());
+        });
+    }
+
+    @Test
+    public void testPatientInsuranceIsNotLoadedUntilRead() {
+        Patient patient = newPatient();
+        transactionTemplate.executeWithoutResult(status -> {
+            QueryCounter.reset();
+            Patient loaded = entityManager.find(Patient.class, patient.getId());
+            assertEquals(1, QueryCounter.count());
+            assertEquals(patient.getInsurance().getId(), loaded.getInsurance().getId()); // the id comes from the fk column
+            assertFalse(Hibernate.isInitialized(loaded.getInsurance()));
+            assertEquals(1, QueryCounter.count());
+        });
+    }
+
+    @Test
+    public void testReasonIsLoadedOnFirstRead() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Appointment appointment = entityManager.find(Appointment.class, 1L);
+            assertFalse(Hibernate.isPropertyInitialized(appointment, "reason"));
+            QueryCounter.reset();
+            assertEquals("General Checkup", appointment.getReason());
+            assertEquals(1, QueryCounter.count());
+        });
+    }
+
+    @Test
+    public void testSettersTrackDirtyAttributes() {
+        Patient patient = newPatient();
+        transactionTemplate.executeWithoutResult(status -> {
+            Patient loaded = entityManager.find(Patient.class, patient.getId());
+            SelfDirtinessTracker tracker = assertInstanceOf(SelfDirtinessTracker.class, loaded);
+            assertFalse(tracker.$$_hibernate_hasDirtyAttributes());
+
+            loaded.setBloodGroup(BloodGroup.B_NEGATIVE);
+            assertArrayEquals(new String[]{"bloodGroup"}, tracker.$$_hibernate_getDirtyAttributes());
+            QueryCounter.reset();
+            entityManager.flush();
+            assertTrue(QueryCounter.statements().getFirst().startsWith("update patient"));
+            assertFalse(tracker.$$_hibernate_hasDirtyAttributes());
+        });
+    }
+
+    private Patient newPatient() {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName("Enhanced " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.FEMALE);
+            patient.setBirthDate(LocalDate.of(1978, 6, 1));
+            patient.setEmail(UUID.randomUUID() + "@enhanced.example.com");
+            patient.setBloodGroup(BloodGroup.O_POSITIVE);
+            patient.setInsurance(Insurance.builder()
+                    .policyNumber("ENH-" + UUID.randomUUID())
+                    .provider("Enhanced Provider")
+                    .validUntil(LocalDate.now().plusYears(1))
+                    .build());
+            entityManager.persist(patient);
+            return patient;
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.BookingRequest;
+import com.dhami.hospital.management.System.dto.DepartmentDayCount;
+import com.dhami.hospital.management.System.dto.DepartmentStatsView;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Department;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.service.DepartmentStatsService;
+import com.dhami.hospital.management.System.service.PatientService;
+import com.dhami.hospital.management.System.service.SchedulingService;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class DepartmentStatsTests {
+
+    @Autowired
+    private DepartmentStatsService departmentStatsService;
+
+    @Autowired
+    private SchedulingService schedulingService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testStatsFollowAppointmentWrites() {
+        Doctor head = newDoctor();
+        Doctor member = newDoctor();
+        Department department = newDepartment(head, member);
+        Patient patient = newPatient();
+
+        DepartmentStatsView created = stats(department);
+        assertEquals(2, created.doctorCount());
+        assertEquals(head.getId(), created.headDoctorId());
+        assertEquals(0, created.appointmentCount());
+
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(100, 2000)).atTime(10, 0);
+        transactionTemplate.executeWithoutResult(status -> doctorRepository.findById(head.getId()).orElseThrow());
+        schedulingService.book(new BookingRequest(patient.getId(), head.getId(), slot, "Stats test"));
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(Appointment.builder()
+                .appointmentTime(slot.plusDays(1))
+                .reason("Stats test")
+                .doctor(entityManager.getReference(Doctor.class, member.getId()))
+                .patient(entityManager.getReference(Patient.class, patient.getId()))
+                .build()));
+
+        DepartmentStatsView booked = stats(department);
+        assertEquals(2, booked.appointmentCount());
+        assertEquals(1, booked.headDoctorAppointmentCount());
+        assertEquals(List.of(new DepartmentDayCount(slot.toLocalDate(), 1), new DepartmentDayCount(slot.toLocalDate().plusDays(1), 1)),
+                departmentStatsService.getDailyCounts(department.getId(), slot.toLocalDate(), slot.toLocalDate().plusDays(7)));
+        // the native upserts name their table, cached reference data stays cached
+        assertTrue(entityManagerFactory.getCache().contains(Doctor.class, head.getId()));
+
+        patientService.deletePatients(List.of(patient.getId()));
+        DepartmentStatsView deleted = stats(department);
+        assertEquals(0, deleted.appointmentCount());
+        assertEquals(0, deleted.headDoctorAppointmentCount());
+
+        // incremental result == full recompute
+        departmentStatsService.refresh(List.of(department.getId()));
+        assertEquals(deleted.appointmentCount(), stats(department).appointmentCount());
+        assertEquals(deleted.headDoctorAppointmentCount(), stats(department).headDoctorAppointmentCount());
+    }
+
+    @Test
+    public void testDashboardIsOneStatement() {
+        QueryCounter.reset();
+        List<DepartmentStatsView> dashboard = departmentStatsService.getDashboard();
+        assertEquals(1, QueryCounter.count());
+        System.out.println("department dashboard rows: " + dashboard.size());
+    }
+
+    private DepartmentStatsView stats(Department department) {
+        return departmentStatsService.getDashboard().stream()
+                .filter(view -> view.departmentId().equals(department.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Doctor newDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Stats " + UUID.randomUUID());
+        doctor.setSpecialization("Stats");
+        doctor.setEmail(UUID.randomUUID() + "@stats.example.com");
+        return doctorRepository.save(doctor);
+    }
+
+    private Department newDepartment(Doctor head, Doctor member) {
+        return transactionTemplate.execute(status -> {
+            Department department = new Department();
+            department.setName("Stats " + UUID.randomUUID());
+            department.setHeadDoctor(entityManager.getReference(Doctor.class, head.getId()));
+            department.setDoctors(Set.of(entityManager.getReference(Doctor.class, head.getId()),
+                    entityManager.getReference(Doctor.class, member.getId())));
+            entityManager.persist(department);
+            return department;
+        });
+    }
+
+    private Patient newPatient() {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName("Stats " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.FEMALE);
+            patient.setBirthDate(LocalDate.of(1985, 1, 1));
+            patient.setEmail(UUID.randomUUID() + "@stats.example.com");
+            patient.setBloodGroup(BloodGroup.A_POSITIVE);
+            entityManager.persist(patient);
+            return patient;
+        });
+    }
+}
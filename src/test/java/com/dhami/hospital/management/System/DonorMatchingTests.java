@@ -0,0 +1,179 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.DonorMatch;
+import com.dhami.hospital.management.System.dto.DonorProfile;
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.service.DonorIndex;
+import com.dhami.hospital.management.System.service.DonorMatchingService;
+import com.dhami.hospital.management.System.service.PatientService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class DonorMatchingTests {
+
+    @Autowired
+    private DonorIndex donorIndex;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testCompatibilityMatrix() {
+        assertEquals(EnumSet.of(BloodGroup.O_NEGATIVE), BloodGroup.O_NEGATIVE.compatibleDonors());
+        assertEquals(EnumSet.allOf(BloodGroup.class), BloodGroup.AB_POSITIVE.compatibleDonors());
+        assertEquals(EnumSet.of(BloodGroup.O_NEGATIVE, BloodGroup.O_POSITIVE, BloodGroup.A_NEGATIVE, BloodGroup.A_POSITIVE),
+                BloodGroup.A_POSITIVE.compatibleDonors());
+        assertEquals(EnumSet.of(BloodGroup.O_NEGATIVE, BloodGroup.B_NEGATIVE), BloodGroup.B_NEGATIVE.compatibleDonors());
+        assertEquals(EnumSet.of(BloodGroup.O_NEGATIVE, BloodGroup.A_NEGATIVE, BloodGroup.B_NEGATIVE, BloodGroup.AB_NEGATIVE),
+                BloodGroup.AB_NEGATIVE.compatibleDonors());
+    }
+
+    @Test
+    public void testDonorIndexFollowsWrites() {
+        // a birth day no other test uses -> the range isolates this patient
+        LocalDate birthDate = LocalDate.of(1901, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(3_000));
+        Patient patient = transactionTemplate.execute(status -> {
+            Patient created = new Patient();
+            created.setName("Donor " + UUID.randomUUID().toString().substring(0, 8));
+            created.setGender(Gender.FEMALE);
+            created.setBirthDate(birthDate);
+            created.setEmail(UUID.randomUUID() + "@donor.example.com");
+            created.setBloodGroup(BloodGroup.O_NEGATIVE);
+            entityManager.persist(created);
+            return created;
+        });
+        Long id = patient.getId();
+        assertTrue(donorIds(BloodGroup.O_NEGATIVE, birthDate).contains(id));
+        assertTrue(donorIds(BloodGroup.AB_POSITIVE, birthDate).contains(id));
+
+        // new blood group -> visible after commit, the old group no longer matches
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Patient.class, id).setBloodGroup(BloodGroup.B_POSITIVE));
+        assertFalse(donorIds(BloodGroup.O_NEGATIVE, birthDate).contains(id));
+        assertFalse(donorIds(BloodGroup.A_POSITIVE, birthDate).contains(id));
+        assertTrue(donorIds(BloodGroup.AB_POSITIVE, birthDate).contains(id));
+
+        // corrected birth date -> the old day bucket no longer has it
+        LocalDate corrected = birthDate.plusDays(1);
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Patient.class, id).setBirthDate(corrected));
+        assertFalse(donorIds(BloodGroup.B_POSITIVE, birthDate).contains(id));
+        assertTrue(donorIds(BloodGroup.B_POSITIVE, corrected).contains(id));
+
+        // the upsert writes with plain sql, PatientService updates the index itself
+        patientService.upsertPatients(List.of(new PatientImportRow(patient.getName(), Gender.FEMALE, corrected,
+                patient.getEmail(), BloodGroup.A_NEGATIVE, null, List.of())));
+        assertFalse(donorIds(BloodGroup.B_POSITIVE, corrected).contains(id));
+        assertTrue(donorIds(BloodGroup.A_NEGATIVE, corrected).contains(id));
+
+        // so does the bulk delete
+        patientService.deletePatients(List.of(id));
+        assertFalse(donorIds(BloodGroup.AB_POSITIVE, corrected).contains(id));
+    }
+
+    @Test
+    public void testMatchAgreesWithBruteForce() {
+        Random random = new Random(7);
+        DonorIndex index = new DonorIndex();
+        Map<Long, DonorProfile> profiles = new HashMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            profiles.put(id, randomProfile(random, id));
+        }
+        index.replaceAll(profiles.values());
+        // moves between groups / buckets and removals after the build
+        for (int i = 0; i < 2_000; i++) {
+            long id = 1 + random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                profiles.put(id, randomProfile(random, id));
+                index.put(profiles.get(id));
+            } else {
+                profiles.remove(id);
+                index.remove(id);
+            }
+        }
+
+        for (int i = 0; i < 300; i++) {
+            BloodGroup recipient = BloodGroup.values()[random.nextInt(BloodGroup.values().length)];
+            LocalDate from = random.nextInt(5) == 0 ? null : randomDate(random);
+            // from a single day up to decades, both walks of DonorIndex.match get used
+            LocalDate to = random.nextInt(5) == 0 ? null
+                    : (from == null ? randomDate(random) : from.plusDays(random.nextInt(random.nextBoolean() ? 40 : 20_000)));
+            int limit = 1 + random.nextInt(50);
+
+            List<Long> expected = profiles.values().stream()
+                    .filter(profile -> profile.bloodGroup() != null && profile.bloodGroup().canDonateTo(recipient))
+                    .filter(profile -> (from == null && to == null) || (profile.birthDate() != null
+                            && (from == null || !profile.birthDate().isBefore(from))
+                            && (to == null || !profile.birthDate().isAfter(to))))
+                    .map(DonorProfile::patientId)
+                    .sorted()
+                    .toList();
+            DonorMatch match = index.match(recipient, from, to, limit);
+            String query = recipient + " born " + from + " - " + to + " limit " + limit;
+            assertEquals(expected.size(), match.total(), query);
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())), match.patientIds(), query);
+        }
+    }
+
+    @Test
+    public void testAgeRangeBoundaries() {
+        LocalDate today = LocalDate.now();
+        DonorIndex index = new DonorIndex();
+        index.replaceAll(List.of(
+                new DonorProfile(1L, BloodGroup.O_NEGATIVE, today.minusYears(18)),                // 18 today
+                new DonorProfile(2L, BloodGroup.O_NEGATIVE, today.minusYears(18).plusDays(1)),    // 18 tomorrow
+                new DonorProfile(3L, BloodGroup.O_NEGATIVE, today.minusYears(66).plusDays(1)),    // 65, 66 tomorrow
+                new DonorProfile(4L, BloodGroup.O_NEGATIVE, today.minusYears(66)),                // 66 today
+                new DonorProfile(5L, BloodGroup.O_NEGATIVE, null)));
+        DonorMatchingService service = new DonorMatchingService(index, null);
+
+        assertEquals(List.of(1L, 3L), service.findCompatibleDonors(BloodGroup.A_POSITIVE, 18, 65, 10).patientIds());
+        assertEquals(List.of(1L, 3L, 4L), service.findCompatibleDonors(BloodGroup.A_POSITIVE, 18, null, 10).patientIds());
+        assertEquals(List.of(2L), service.findCompatibleDonors(BloodGroup.A_POSITIVE, null, 17, 10).patientIds());
+        assertEquals(5, service.findCompatibleDonors(BloodGroup.A_POSITIVE, null, null, 10).total());
+        assertEquals(0, service.findCompatibleDonors(BloodGroup.A_POSITIVE, 70, 80, 10).total());
+
+        assertThrows(IllegalArgumentException.class, () -> service.findCompatibleDonors(BloodGroup.A_POSITIVE, 65, 18, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.findCompatibleDonors(BloodGroup.A_POSITIVE, -1, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.findCompatibleDonors(null, null, null, 10));
+    }
+
+    private List<Long> donorIds(BloodGroup recipient, LocalDate birthDate) {
+        return donorIndex.match(recipient, birthDate, birthDate, DonorMatchingService.MAX_LIMIT).patientIds();
+    }
+
+    private static DonorProfile randomProfile(Random random, long id) {
+        BloodGroup bloodGroup = random.nextInt(20) == 0 ? null : BloodGroup.values()[random.nextInt(BloodGroup.values().length)];
+        return new DonorProfile(id, bloodGroup, random.nextInt(20) == 0 ? null : randomDate(random));
+    }
+
+    private static LocalDate randomDate(Random random) {
+        return LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000));
+    }
+}
@@ -0,0 +1,156 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.AppointmentPartitionMaintenance;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+EXPLAIN harness for the hot appointment / patient lookups (postgres)
+-> seeds 1M appointments (200 doctors, 50k patients) with generate_series + ANALYZE
+-> runs the real repository method, takes the sql hibernate generated (QueryCounter)
+-> EXPLAINs that sql with the same parameters and asserts the expected index is used
+-> appointment is partitioned by month: the plan must only touch the partitions of the queried range
+seeding takes a while, so it only runs on demand:
+./mvnw test -Dtest=IndexUsageExplainTests -Dhospital.explain=true
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "hospital.explain", matches = "true")
+public class IndexUsageExplainTests {
+
+    private static final long ID_BASE = 1_000_000;
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 50_000;
+    private static final int APPOINTMENTS = 1_000_000;
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("appointment_(\\d{4})_(\\d{2})");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void seed() {
+        partitionMaintenance.createPartitions(YearMonth.of(2020, 1), YearMonth.of(2029, 12)); // seeded range below
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialization, email) " +
+                "SELECT ? + g, 'Explain Doctor ' || g, 'Explain', 'explain.doctor' || g || '@example.com' " +
+                "FROM generate_series(1, ?) g", ID_BASE, DOCTORS);
+        jdbcTemplate.update("INSERT INTO patient (id, name, gender, birth_date, email, blood_group) " +
+                "SELECT ? + g, 'Explain ' || g, CASE WHEN g % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END, " +
+                "DATE '1950-01-01' + g % 20000, 'Explain.Patient' || g || '@Example.com', 'O_POSITIVE' " +
+                "FROM generate_series(1, ?) g", ID_BASE, PATIENTS);
+        // every 5 minutes one appointment, round robin over doctors and patients -> ~20 per patient, 5000 per doctor
+        jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, reason, doctor_id, patient_id) " +
+                "SELECT ? + g, TIMESTAMP '2020-01-01 09:00:00' + g * INTERVAL '5 minutes', 'Explain', " +
+                "? + 1 + g % ?, ? + 1 + g % ? " +
+                "FROM generate_series(1, ?) g", ID_BASE, ID_BASE, DOCTORS, ID_BASE, PATIENTS, APPOINTMENTS);
+        jdbcTemplate.execute("ANALYZE doctor");
+        jdbcTemplate.execute("ANALYZE patient");
+        jdbcTemplate.execute("ANALYZE appointment");
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM patient WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM doctor WHERE id > ?", ID_BASE);
+    }
+
+    @Test
+    public void testDoctorAgendaUsesDoctorTimeIndex() {
+        Long doctorId = ID_BASE + 7;
+        LocalDateTime from = LocalDateTime.of(2021, 3, 1, 0, 0);
+        LocalDateTime to = from.plusWeeks(1);
+
+        String plan = explain(() -> appointmentRepository.findDoctorAgenda(doctorId, from, to), doctorId, from, to);
+
+        assertIndexScan(plan, "appointment_2021_03_doctor_id_appointment_time_key"); // unique_doctor_appointment_time
+        assertPartitions(plan, YearMonth.of(2021, 3), YearMonth.of(2021, 3));
+    }
+
+    @Test
+    public void testUpcomingForPatientUsesPatientTimeIndex() {
+        Long patientId = ID_BASE + 4242;
+        LocalDateTime from = LocalDateTime.of(2022, 1, 1, 0, 0);
+        int limit = 10;
+
+        String plan = explain(() -> appointmentRepository.findUpcomingForPatient(patientId, from, Limit.of(limit)),
+                patientId, from, limit);
+
+        assertIndexScan(plan, "appointment_2022_01_patient_id_appointment_time_idx"); // idx_appointment_patient_time
+        assertPartitions(plan, YearMonth.of(2022, 1), YearMonth.from(LocalDateTime.MAX)); // open ended -> every later month
+        // partitions are merged in index order (Merge Append), nothing sorts the monthly partitions
+        assertTrue(plan.contains("Merge Append") || !plan.contains("Sort"), "rows should come in index order:\n" + plan);
+    }
+
+    @Test
+    public void testEmailLookupUsesLowerEmailIndex() {
+        String email = "explain.patient123@example.com";
+
+        String plan = explain(() -> patientRepository.findByEmailIgnoreCase(email), email);
+
+        assertIndexScan(plan, "idx_patient_email_lower");
+    }
+
+    // runs the query once to capture the generated sql, then EXPLAINs exactly that statement
+    // -> returns the statement followed by its plan, so the assertion messages show both
+    private String explain(Runnable query, Object... parameters) {
+        QueryCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+        List<String> statements = QueryCounter.statements();
+        assertEquals(1, statements.size(), "expected a single statement: " + statements);
+
+        String sql = statements.getFirst();
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), "parameters of: " + sql);
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+        return sql + "\n" + plan;
+    }
+
+    private static void assertIndexScan(String plan, String index) {
+        assertTrue(plan.contains("Index Scan using " + index) || plan.contains("Index Only Scan using " + index)
+                || plan.contains("Bitmap Index Scan on " + index), "expected " + index + " in plan:\n" + plan);
+        // the default partition (empty here) may be read sequentially, any other table must not
+        assertFalse(plan.replace("Seq Scan on " + AppointmentPartitionMaintenance.DEFAULT_PARTITION, "").contains("Seq Scan"),
+                "unexpected sequential scan:\n" + plan);
+    }
+
+    // partition pruning -> only monthly partitions inside [first, last] show up in the plan
+    private static void assertPartitions(String plan, YearMonth first, YearMonth last) {
+        Matcher matcher = MONTHLY_PARTITION.matcher(plan);
+        while (matcher.find()) {
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            assertFalse(month.isBefore(first) || month.isAfter(last), "partition " + matcher.group() + " not pruned:\n" + plan);
+        }
+    }
+}
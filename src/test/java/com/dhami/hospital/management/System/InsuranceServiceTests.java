@@ -0,0 +1,100 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.ExpirySweepResult;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.InsuranceStatus;
+import com.dhami.hospital.management.System.repository.InsuranceRepository;
+import com.dhami.hospital.management.System.service.InsurancePolicyIndex;
+import com.dhami.hospital.management.System.service.InsuranceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class InsuranceServiceTests {
+
+    @Autowired
+    private InsuranceService insuranceService;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private InsurancePolicyIndex policyIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testPolicyIndexFollowsWrites() {
+        Insurance insurance = save(LocalDate.now().minusDays(1));
+        assertNotNull(policyIndex.get(insurance.getPolicyNumber())); // added after commit by the entity listener
+        assertFalse(insuranceService.isValid(insurance.getPolicyNumber()));
+
+        insuranceService.renew(insurance.getPolicyNumber(), LocalDate.now().plusYears(1));
+        assertTrue(insuranceService.isValid(insurance.getPolicyNumber()));
+
+        insuranceRepository.deleteById(insurance.getId());
+        assertFalse(insuranceService.isValid(insurance.getPolicyNumber()));
+        assertFalse(insuranceService.isValid("UNKNOWN-" + UUID.randomUUID()));
+    }
+
+    @Test
+    public void testExpirySweepMarksPoliciesInChunks() {
+        Insurance expired = save(LocalDate.now().minusDays(3));
+        Insurance expiring = save(LocalDate.now().plusDays(5));
+        Insurance active = save(LocalDate.now().plusYears(2));
+
+        ExpirySweepResult result = insuranceService.sweepExpiringPolicies();
+        System.out.println("expiry sweep: " + result);
+
+        assertTrue(result.expired() >= 1);
+        assertTrue(result.expiring() >= 1);
+        assertEquals(InsuranceStatus.EXPIRED, insuranceRepository.findById(expired.getId()).orElseThrow().getStatus());
+        assertEquals(InsuranceStatus.EXPIRING, insuranceRepository.findById(expiring.getId()).orElseThrow().getStatus());
+        assertEquals(InsuranceStatus.ACTIVE, insuranceRepository.findById(active.getId()).orElseThrow().getStatus());
+
+        // second run has nothing left to do for these rows
+        ExpirySweepResult again = insuranceService.sweepExpiringPolicies();
+        assertEquals(0, again.expired());
+        assertEquals(0, again.expiring());
+    }
+
+    // the sweep selected the policy, a renewal commits before the sweep's update -> the update must skip it
+    @Test
+    public void testSweepUpdateSkipsPolicyRenewedAfterTheSelect() {
+        Insurance insurance = save(LocalDate.now().minusDays(3));
+        LocalDate today = LocalDate.now();
+        List<InsuranceStatus> notExpired = List.of(InsuranceStatus.ACTIVE, InsuranceStatus.EXPIRING);
+        List<Long> selected = insuranceRepository.findIdsValidBefore(today, notExpired, Limit.of(10_000));
+        assertTrue(selected.contains(insurance.getId()));
+
+        insuranceService.renew(insurance.getPolicyNumber(), today.plusYears(1));
+
+        Integer updated = transactionTemplate.execute(status -> insuranceRepository.updateStatusValidBefore(
+                List.of(insurance.getId()), today, notExpired, InsuranceStatus.EXPIRED));
+        assertEquals(0, updated);
+        Insurance stored = insuranceRepository.findById(insurance.getId()).orElseThrow();
+        assertEquals(InsuranceStatus.ACTIVE, stored.getStatus());
+        assertEquals(today.plusYears(1), stored.getValidUntil());
+    }
+
+    private Insurance save(LocalDate validUntil) {
+        return insuranceRepository.save(Insurance.builder()
+                .policyNumber("TEST-" + UUID.randomUUID())
+                .provider("Test Provider")
+                .validUntil(validUntil)
+                .build());
+    }
+}
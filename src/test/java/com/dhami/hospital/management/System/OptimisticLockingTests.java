@@ -0,0 +1,224 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.dto.PatientUpdateRequest;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.InsuranceRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.InsuranceService;
+import com.dhami.hospital.management.System.service.PatientService;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class OptimisticLockingTests {
+
+    private static final int THREADS = 16;
+
+    private static final int BENCHMARK_OPERATIONS = 800;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private InsuranceService insuranceService;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // two edits of different fields at the same time: without @Version the second full-row UPDATE writes back the stale other field
+    @Test
+    public void testConcurrentPatientEditsKeepBothChanges() throws Exception {
+        Patient patient = newPatient();
+        String token = UUID.randomUUID().toString().substring(0, 8);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            for (int round = 0; round < 20; round++) {
+                String name = "Optimistic " + token + " " + round;
+                String email = "optimistic." + token + "." + round + "@example.com";
+                CountDownLatch go = new CountDownLatch(1);
+                Future<PatientSummary> renamed = executor.submit(() -> {
+                    go.await();
+                    return patientService.updatePatient(patient.getId(), new PatientUpdateRequest(name, null, null));
+                });
+                Future<PatientSummary> moved = executor.submit(() -> {
+                    go.await();
+                    return patientService.updatePatient(patient.getId(), new PatientUpdateRequest(null, email, null));
+                });
+                go.countDown();
+                renamed.get();
+                moved.get();
+
+                Patient stored = patientRepository.findById(patient.getId()).orElseThrow();
+                assertEquals(name, stored.getName());
+                assertEquals(email, stored.getEmail());
+            }
+            System.out.println("patient version after 40 concurrent edits: "
+                    + patientRepository.findById(patient.getId()).orElseThrow().getVersion());
+        }
+    }
+
+    // every extension adds a day on top of what the previous one wrote -> conflicts are retried, none is lost
+    @Test
+    public void testConcurrentExtensionsAreNotLost() throws Exception {
+        Insurance insurance = newInsurance(LocalDate.now().plusYears(1));
+        int writers = 8;
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    go.await();
+                    return insuranceService.extend(insurance.getPolicyNumber(), Period.ofDays(1));
+                }));
+            }
+            go.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        Insurance stored = insuranceRepository.findById(insurance.getId()).orElseThrow();
+        assertEquals(insurance.getValidUntil().plusDays(writers), stored.getValidUntil());
+        assertEquals(writers, stored.getVersion());
+    }
+
+    /*
+    read, check (~1 ms of work), write only 1 in 10 -> typical edit screen / eligibility check
+    FOR UPDATE: every operation holds the row lock through the check, operations on a hot row run one after the other
+    optimistic: checks run in parallel, only writers that actually collide redo their work
+    both must end with exactly one extra day per write (checked in run), a small workload is enough for that
+     */
+    @Test
+    public void testReadMostlyWorkloadLosesNoWrites() throws Exception {
+        run(true, 80);
+        run(false, 80);
+    }
+
+    // wall clock comparison, noisy on a loaded machine -> on demand only:
+    // ./mvnw test -Dtest=OptimisticLockingTests -Dhospital.lock-benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "hospital.lock-benchmark", matches = "true")
+    public void testOptimisticLockingOutrunsSelectForUpdate() throws Exception {
+        run(true, BENCHMARK_OPERATIONS); // warm up
+        double pessimistic = run(true, BENCHMARK_OPERATIONS);
+        double optimistic = run(false, BENCHMARK_OPERATIONS);
+        assertTrue(optimistic > pessimistic, "optimistic " + optimistic + " ops/s vs FOR UPDATE " + pessimistic + " ops/s");
+    }
+
+    private double run(boolean forUpdate, int operations) throws Exception {
+        List<Insurance> rows = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            rows.add(newInsurance(LocalDate.now().plusYears(1)));
+        }
+        RetryTemplate retry = new RetryTemplate(RetryPolicy.builder()
+                .includes(OptimisticLockingFailureException.class)
+                .maxRetries(20)
+                .delay(Duration.ofMillis(2))
+                .jitter(Duration.ofMillis(1))
+                .multiplier(2)
+                .maxDelay(Duration.ofMillis(50))
+                .build());
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        long start;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < operations; i++) {
+                Long id = rows.get(i % rows.size()).getId();
+                boolean write = i % 10 == 0;
+                results.add(executor.submit(() -> {
+                    go.await();
+                    retry.execute(() -> transactionTemplate.execute(status -> {
+                        Insurance insurance = forUpdate
+                                ? entityManager.find(Insurance.class, id, LockModeType.PESSIMISTIC_WRITE)
+                                : entityManager.find(Insurance.class, id,
+                                        Map.of("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS));
+                        LockSupport.parkNanos(Duration.ofMillis(1).toNanos());
+                        if (write) {
+                            insurance.setValidUntil(insurance.getValidUntil().plusDays(1));
+                        }
+                        return null;
+                    }));
+                    if (write) {
+                        writes.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start = System.nanoTime();
+            go.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long extendedDays = 0;
+        for (Insurance row : rows) {
+            Insurance stored = insuranceRepository.findById(row.getId()).orElseThrow();
+            extendedDays += ChronoUnit.DAYS.between(row.getValidUntil(), stored.getValidUntil());
+        }
+        assertEquals(writes.get(), extendedDays);
+        return operations / seconds;
+    }
+
+    private Patient newPatient() {
+        Patient patient = new Patient();
+        patient.setName("Optimistic " + UUID.randomUUID().toString().substring(0, 8));
+        patient.setGender(Gender.FEMALE);
+        patient.setBirthDate(LocalDate.of(1980, 4, 2));
+        patient.setEmail(UUID.randomUUID() + "@optimistic.example.com");
+        patient.setBloodGroup(BloodGroup.B_POSITIVE);
+        return patientRepository.save(patient);
+    }
+
+    private Insurance newInsurance(LocalDate validUntil) {
+        return insuranceRepository.save(Insurance.builder()
+                .policyNumber("OPT-" + UUID.randomUUID())
+                .provider("Optimistic Provider")
+                .validUntil(validUntil)
+                .build());
+    }
+}
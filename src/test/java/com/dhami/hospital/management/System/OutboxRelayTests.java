@@ -0,0 +1,201 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.dto.BookingRequest;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.OutboxEvent;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.repository.OutboxEventRepository;
+import com.dhami.hospital.management.System.service.SchedulingService;
+import com.dhami.hospital.management.System.support.FailingTransactionalAppointmentListener;
+import com.dhami.hospital.management.System.support.RecordingAppointmentListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class OutboxRelayTests {
+
+    @Autowired
+    private SchedulingService schedulingService;
+
+    @Autowired
+    private RecordingAppointmentListener listener;
+
+    @Autowired
+    private FailingTransactionalAppointmentListener billing;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testEventsDeliveredInOrderWithoutBlockingBookings() {
+        Doctor doctor = newDoctor();
+        Patient patient = newPatient();
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(100, 2000)).atTime(10, 0);
+
+        listener.hold(); // consumer is stuck, bookings must not notice
+        AppointmentResponse booked;
+        try {
+            booked = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                AppointmentResponse appointment = schedulingService.book(
+                        new BookingRequest(patient.getId(), doctor.getId(), slot, "Outbox test"));
+                schedulingService.reschedule(appointment.id(), slot.plusHours(1));
+                schedulingService.cancel(appointment.id());
+                return appointment;
+            });
+            assertTrue(listener.deliveredFor(patient.getId()).isEmpty());
+        } finally {
+            listener.release();
+        }
+
+        await(() -> listener.deliveredFor(patient.getId()).size() == 3);
+        List<AppointmentEvent> events = listener.deliveredFor(patient.getId());
+        assertEquals(List.of(AppointmentEvent.Type.CREATED, AppointmentEvent.Type.MOVED, AppointmentEvent.Type.CANCELLED),
+                events.stream().map(AppointmentEvent::type).toList());
+        assertTrue(events.stream().allMatch(event -> event.appointmentId().equals(booked.id())));
+        assertEquals(slot, events.get(1).previousAppointmentTime());
+        assertEquals(slot.plusHours(1), events.get(1).appointmentTime());
+        await(() -> outboxRepository.findAll().stream().noneMatch(event -> event.getAggregateId().equals(booked.id())));
+    }
+
+    @Test
+    public void testLaterChangeGetsLargerIdThanIdsDrawnByOtherInstances() {
+        Doctor doctor = newDoctor();
+        Patient patient = newPatient();
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(100, 2000)).atTime(11, 0);
+
+        listener.hold(); // events stay in the table until both are read
+        try {
+            AppointmentResponse booked = schedulingService.book(
+                    new BookingRequest(patient.getId(), doctor.getId(), slot, "Outbox ids"));
+            // a writer on another instance draws ids meanwhile (a pooled block would have kept this instance below them)
+            Long drawnElsewhere = jdbcTemplate.queryForObject("SELECT nextval('outbox_event_seq')", Long.class);
+            schedulingService.reschedule(booked.id(), slot.plusHours(1));
+
+            List<OutboxEvent> events = outboxRepository.findAll().stream()
+                    .filter(event -> event.getAggregateId().equals(booked.id()))
+                    .sorted(Comparator.comparing(OutboxEvent::getId))
+                    .toList();
+            assertEquals(List.of("CREATED", "MOVED"), events.stream().map(OutboxEvent::getEventType).toList());
+            assertTrue(events.get(1).getId() > drawnElsewhere);
+        } finally {
+            listener.release();
+        }
+        await(() -> listener.deliveredFor(patient.getId()).size() == 2);
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetried() {
+        Doctor doctor = newDoctor();
+        Patient patient = newPatient();
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(100, 2000)).atTime(14, 0);
+
+        listener.failNext(patient.getId(), 2);
+        AppointmentResponse booked = schedulingService.book(new BookingRequest(patient.getId(), doctor.getId(), slot, "Outbox retry"));
+
+        // 2 failures -> retried after the backoff, delivered exactly once to a listener that finally accepts it
+        await(() -> listener.deliveredFor(patient.getId()).size() == 1);
+        assertEquals(booked.id(), listener.deliveredFor(patient.getId()).getFirst().appointmentId());
+        await(() -> outboxRepository.findAll().stream().noneMatch(event -> event.getAggregateId().equals(booked.id())));
+    }
+
+    @Test
+    public void testFailingTransactionalListenerOnlyHoldsBackItsAppointment() {
+        Doctor doctor = newDoctor();
+        Patient failing = newPatient();
+        Patient other = newPatient();
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(100, 2000)).atTime(15, 0);
+
+        billing.failFor(failing.getId());
+        AppointmentResponse held;
+        listener.hold(); // both events in one batch, the failing one first
+        try {
+            held = schedulingService.book(new BookingRequest(failing.getId(), doctor.getId(), slot, "Billing down"));
+            schedulingService.book(new BookingRequest(other.getId(), doctor.getId(), slot.plusHours(1), "Billing fine"));
+        } finally {
+            listener.release();
+        }
+
+        try {
+            // the rollback of the listener's transaction does not undo the batch: the other appointment is delivered,
+            // the failure is recorded and backs off instead of being retried on every poll
+            await(() -> listener.deliveredFor(other.getId()).size() == 1);
+            await(() -> outboxRepository.findAll().stream()
+                    .anyMatch(event -> event.getAggregateId().equals(held.id()) && event.getAttempts() > 0
+                            && event.getNextAttemptAt() != null));
+            assertTrue(listener.deliveredFor(failing.getId()).isEmpty());
+        } finally {
+            billing.recover(failing.getId());
+        }
+
+        await(() -> listener.deliveredFor(failing.getId()).size() == 1);
+        assertEquals(1, listener.deliveredFor(other.getId()).size());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private Doctor newDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Outbox " + UUID.randomUUID());
+        doctor.setSpecialization("Outbox");
+        doctor.setEmail(UUID.randomUUID() + "@outbox.example.com");
+        return doctorRepository.save(doctor);
+    }
+
+    private Patient newPatient() {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName("Outbox " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.FEMALE);
+            patient.setBirthDate(LocalDate.of(1980, 5, 5));
+            patient.setEmail(UUID.randomUUID() + "@outbox.example.com");
+            patient.setBloodGroup(BloodGroup.B_POSITIVE);
+            entityManager.persist(patient);
+            return patient;
+        });
+    }
+}
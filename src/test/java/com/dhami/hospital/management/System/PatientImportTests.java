@@ -0,0 +1,273 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.ImportResult;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.DoctorAvailabilityIndex;
+import com.dhami.hospital.management.System.service.PatientExportService;
+import com.dhami.hospital.management.System.service.PatientImportService;
+import com.dhami.hospital.management.System.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// chunks of 3 -> a few rows already span several import transactions / export chunks
+@SpringBootTest(properties = {"hospital.import.chunk-size=3", "hospital.export.chunk-size=3"})
+public class PatientImportTests {
+
+    private static final long UNKNOWN_DOCTOR = Long.MAX_VALUE;
+    private static final String CSV_HEADER =
+            "name,gender,birthDate,email,bloodGroup,policyNumber,provider,validUntil,appointmentTime,reason,doctorId";
+
+    @Autowired
+    private PatientImportService importService;
+
+    @Autowired
+    private PatientExportService exportService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private DoctorAvailabilityIndex availabilityIndex;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testCsvImportRejectsBadRowsAndKeepsTheRest() throws IOException {
+        String domain = "@" + UUID.randomUUID().toString().substring(0, 8) + ".import.example.com";
+        Long doctorId = newDoctor().getId();
+        LocalDateTime time = randomPastSlot();
+
+        Path file = write("patients.csv", List.of(
+                CSV_HEADER,
+                csv("Ada", "FEMALE", "1980-01-01", "ada" + domain, "O_POSITIVE", "POL-" + domain, "Acme", "2030-01-01", time, "\"Check, up\"", doctorId),
+                csv("Ada", "FEMALE", "1980-01-01", "ada" + domain, "O_POSITIVE", "POL-" + domain, "Acme", "2030-01-01", time.plusHours(1), "Follow up", doctorId),
+                csv("Ben", "MALE", "1981-02-02", "ben" + domain, "", "", "", "", "", "", ""),
+                "",
+                csv("Cy", "MALE", "1982-03-03", "cy" + domain, "", "", "", "", time.plusHours(2), "No doctor", ""),
+                csv("Dee", "FEMALE", "1983-13-13", "dee" + domain, "", "", "", "", "", "", ""),
+                csv("Eve", "FEMALE", "1984-05-05", "eve" + domain, "A_NEGATIVE", "", "", "", time.plusHours(3), "Fine", doctorId),
+                csv("Fay", "FEMALE", "1985-06-06", "fay" + domain, "", "", "", "", time.plusHours(4), "Unknown doctor", UNKNOWN_DOCTOR),
+                csv("Gus", "MALE", "1986-07-07", "gus" + domain, "", "", "", "", "", "", "")));
+
+        ImportResult result = importService.importFile(file, PatientImportService.Format.CSV);
+
+        // rows = patients in the file, not lines (Ada has two)
+        assertEquals(7, result.rows());
+        assertEquals(4, result.patients());
+        assertEquals(1, result.insurances());
+        assertEquals(3, result.appointments());
+        assertEquals(3, result.rejected());
+        assertEquals(List.of(6L, 7L, 9L), result.errors().stream().map(ImportResult.RowError::line).toList());
+        assertTrue(result.errors().get(0).message().contains("doctorId"), result.errors().get(0).message());
+        assertTrue(result.errors().get(1).message().contains("birthDate"), result.errors().get(1).message());
+        assertTrue(result.errors().get(2).message().contains("doctor"), result.errors().get(2).message());
+
+        // Fay was refused by the database, Gus from the same chunk is still imported
+        for (String name : List.of("ada", "ben", "eve", "gus")) {
+            assertTrue(patientRepository.findByEmailIgnoreCase(name + domain).isPresent(), name);
+        }
+        for (String name : List.of("cy", "dee", "fay")) {
+            assertFalse(patientRepository.findByEmailIgnoreCase(name + domain).isPresent(), name);
+        }
+        Patient ada = patientRepository.findByEmailIgnoreCase("ada" + domain).orElseThrow();
+        assertEquals(2, appointmentRepository.findHistoryRowsByPatientIds(List.of(ada.getId())).size());
+    }
+
+    @Test
+    public void testNdjsonImportRejectsBadLinesAndKeepsTheRest() throws IOException {
+        String domain = "@" + UUID.randomUUID().toString().substring(0, 8) + ".import.example.com";
+        Long doctorId = newDoctor().getId();
+        LocalDateTime time = randomPastSlot();
+
+        Path file = write("patients.ndjson", List.of(
+                "{\"name\":\"Ann\",\"gender\":\"FEMALE\",\"birthDate\":\"1990-01-01\",\"email\":\"ann" + domain + "\","
+                        + "\"appointments\":[{\"appointmentTime\":\"" + time + "\",\"reason\":\"Visit\",\"doctorId\":" + doctorId + "}]}",
+                "{\"name\":\"Bob\",\"email\":",
+                "{\"name\":\"Cat\",\"birthDate\":\"1992-03-03\"}",
+                "",
+                "{\"name\":\"Dan\",\"email\":\"dan" + domain + "\",\"appointments\":[{\"appointmentTime\":\"" + time.plusHours(1) + "\"}]}",
+                "{\"name\":\"Eli\",\"email\":\"eli" + domain + "\",\"insurance\":{\"policyNumber\":\"POL-" + domain
+                        + "\",\"provider\":\"Acme\",\"validUntil\":\"2031-01-01\"}}",
+                "{\"name\":\"Flo\",\"email\":\"flo" + domain + "\"}",
+                "{\"name\":\"Gil\",\"email\":\"gil" + domain + "\"}"));
+
+        ImportResult result = importService.importFile(file, PatientImportService.Format.NDJSON);
+
+        assertEquals(7, result.rows());
+        assertEquals(4, result.patients());
+        assertEquals(1, result.insurances());
+        assertEquals(1, result.appointments());
+        assertEquals(List.of(2L, 3L, 5L), result.errors().stream().map(ImportResult.RowError::line).toList());
+        assertTrue(result.errors().get(0).message().startsWith("invalid JSON"), result.errors().get(0).message());
+        assertTrue(result.errors().get(1).message().contains("email"), result.errors().get(1).message());
+        assertTrue(result.errors().get(2).message().contains("doctorId"), result.errors().get(2).message());
+        for (String name : List.of("ann", "eli", "flo", "gil")) {
+            assertTrue(patientRepository.findByEmailIgnoreCase(name + domain).isPresent(), name);
+        }
+        assertFalse(patientRepository.findByEmailIgnoreCase("dan" + domain).isPresent());
+    }
+
+    @Test
+    public void testLegacySpellingsAreReadLikeTheMigrationDid() throws IOException {
+        assertEquals(BloodGroup.O_POSITIVE, BloodGroup.parse("O+"));
+        assertEquals(BloodGroup.AB_NEGATIVE, BloodGroup.parse("ab-ve"));
+        assertEquals(BloodGroup.B_POSITIVE, BloodGroup.parse(" B pos "));
+        assertEquals(BloodGroup.A_NEGATIVE, BloodGroup.parse("a_negative"));
+        assertEquals(Gender.FEMALE, Gender.parse("f"));
+        assertEquals(Gender.MALE, Gender.parse(" Male"));
+        assertThrows(IllegalArgumentException.class, () -> BloodGroup.parse("C+"));
+        assertThrows(IllegalArgumentException.class, () -> Gender.parse("x"));
+
+        String domain = "@" + UUID.randomUUID().toString().substring(0, 8) + ".import.example.com";
+        Path csv = write("legacy.csv", List.of(
+                CSV_HEADER,
+                csv("Ivy", "f", "", "ivy" + domain, "ab-ve", "", "", "", "", "", ""),
+                csv("Jon", "Male", "", "jon" + domain, "O+", "", "", "", "", "", ""),
+                csv("Kim", "x", "", "kim" + domain, "O+", "", "", "", "", "", ""),
+                csv("Lou", "F", "", "lou" + domain, "O++", "", "", "", "", "", "")));
+        ImportResult fromCsv = importService.importFile(csv, PatientImportService.Format.CSV);
+        assertEquals(2, fromCsv.patients());
+        assertEquals(List.of("invalid gender 'x'", "invalid bloodGroup 'O++'"),
+                fromCsv.errors().stream().map(ImportResult.RowError::message).toList());
+
+        Path ndjson = write("legacy.ndjson", List.of(
+                "{\"name\":\"Max\",\"gender\":\"m\",\"email\":\"max" + domain + "\",\"bloodGroup\":\"b neg\"}",
+                "{\"name\":\"Ned\",\"gender\":\"MALE\",\"email\":\"ned" + domain + "\",\"bloodGroup\":\"Rh+\"}"));
+        ImportResult fromNdjson = importService.importFile(ndjson, PatientImportService.Format.NDJSON);
+        assertEquals(1, fromNdjson.patients());
+        assertTrue(fromNdjson.errors().getFirst().message().contains("Unknown blood group 'Rh+'"),
+                fromNdjson.errors().getFirst().message());
+
+        assertEquals(Gender.FEMALE, patient("ivy" + domain).getGender());
+        assertEquals(BloodGroup.AB_NEGATIVE, patient("ivy" + domain).getBloodGroup());
+        assertEquals(BloodGroup.O_POSITIVE, patient("jon" + domain).getBloodGroup());
+        assertEquals(Gender.MALE, patient("max" + domain).getGender());
+        assertEquals(BloodGroup.B_NEGATIVE, patient("max" + domain).getBloodGroup());
+    }
+
+    @Test
+    public void testImportedUpcomingAppointmentBlocksItsSlot() throws IOException {
+        String domain = "@" + UUID.randomUUID().toString().substring(0, 8) + ".import.example.com";
+        Long doctorId = newDoctor().getId();
+        LocalDateTime upcoming = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(30, 300)).atTime(10, 0);
+        assertTrue(availabilityIndex.isFree(doctorId, upcoming));
+
+        Path file = write("upcoming.ndjson", List.of(
+                "{\"name\":\"Una\",\"email\":\"una" + domain + "\",\"appointments\":[{\"appointmentTime\":\"" + upcoming
+                        + "\",\"doctorId\":" + doctorId + "}]}"));
+        assertEquals(1, importService.importFile(file, PatientImportService.Format.NDJSON).appointments());
+
+        // the booking fast path knows the slot is taken, no restart needed
+        assertFalse(availabilityIndex.isFree(doctorId, upcoming));
+        assertFalse(availabilityIndex.isFree(doctorId, upcoming.plusMinutes(15)));
+    }
+
+    @Test
+    public void testExportImportsBackToTheSameFile() throws IOException {
+        for (PatientImportService.Format format : PatientImportService.Format.values()) {
+            String tag = UUID.randomUUID().toString().substring(0, 8);
+            String domain = "@" + tag + ".import.example.com";
+            Long doctorId = newDoctor().getId();
+            LocalDateTime time = randomPastSlot();
+            List<String> names = List.of("ada", "ben", "cy", "dee", "eve", "fay", "gus");
+
+            // 7 patients -> 3 chunks on export and on import; quoting, a line break in a quoted value, empty columns, a patient with two appointments
+            importService.importFile(write("source.csv", List.of(
+                    CSV_HEADER,
+                    csv("Ada " + tag, "FEMALE", "1980-01-01", "ada" + domain, "O_POSITIVE", "POL-A" + domain, "Acme", "2030-01-01", time, "\"Check, up\"", doctorId),
+                    csv("Ada " + tag, "FEMALE", "1980-01-01", "ada" + domain, "O_POSITIVE", "POL-A" + domain, "Acme", "2030-01-01", time.plusHours(1), "\"Said \"\"urgent\"\"\"", doctorId),
+                    csv("Ben " + tag, "MALE", "1981-02-02", "ben" + domain, "", "", "", "", "", "", ""),
+                    csv("Cy " + tag, "OTHER", "", "cy" + domain, "AB_NEGATIVE", "POL-C" + domain, "Acme", "2031-01-01", "", "", ""),
+                    csv("Dee " + tag, "FEMALE", "1983-04-04", "dee" + domain, "", "", "", "", time.plusHours(2), "", doctorId),
+                    csv("Eve " + tag, "FEMALE", "1984-05-05", "eve" + domain, "A_NEGATIVE", "", "", "", time.plusHours(3), "Fine", doctorId),
+                    csv("Fay " + tag, "FEMALE", "", "fay" + domain, "", "", "", "", "", "", ""),
+                    csv("Gus " + tag, "MALE", "1986-07-07", "gus" + domain, "B_POSITIVE", "POL-G" + domain, "Acme", "2032-01-01", time.plusHours(4), "\"Last,\nsee " + tag + "\"", doctorId))),
+                    PatientImportService.Format.CSV);
+            // csv: 8 records, Gus' reason spans two lines; ndjson escapes the line break
+            List<String> exported = exportLines(format, tag);
+            assertEquals(format == PatientImportService.Format.CSV ? 9 : 7, exported.size(), format.name());
+
+            // the patients are deleted, then the exported file is imported as is
+            patientService.deletePatients(names.stream().map(name -> patient(name + domain).getId()).toList());
+            List<String> lines = format == PatientImportService.Format.CSV
+                    ? Stream.concat(Stream.of(CSV_HEADER), exported.stream()).toList()
+                    : exported;
+            ImportResult result = importService.importFile(write("export." + format.name().toLowerCase(), lines), format);
+
+            assertEquals(0, result.rejected(), result.errors().toString());
+            assertEquals(7, result.patients(), format.name());
+            assertEquals(3, result.insurances(), format.name());
+            assertEquals(5, result.appointments(), format.name());
+            assertEquals(exported, exportLines(format, tag), format.name());
+        }
+    }
+
+
+    private Patient patient(String email) {
+        return patientRepository.findByEmailIgnoreCase(email).orElseThrow();
+    }
+
+    // the physical lines mentioning the tag (names, emails and the continued reason all carry it)
+    private List<String> exportLines(PatientImportService.Format format, String tag) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(out, format);
+        return out.toString(StandardCharsets.UTF_8).lines().filter(line -> line.contains(tag)).toList();
+    }
+
+    private Path write(String name, List<String> lines) throws IOException {
+        return Files.write(directory.resolve(name), lines);
+    }
+
+    private static String csv(Object... columns) {
+        return String.join(",", Arrays.stream(columns).map(String::valueOf).toList());
+    }
+
+    // the doctor is new -> any past hour is free
+    private static LocalDateTime randomPastSlot() {
+        return LocalDateTime.of(2004, 1, 1, 8, 0).plusDays(ThreadLocalRandom.current().nextInt(3_000));
+    }
+
+    private Doctor newDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Import " + UUID.randomUUID());
+        doctor.setSpecialization("Import");
+        doctor.setEmail(UUID.randomUUID() + "@import.example.com");
+        return doctorRepository.save(doctor);
+    }
+}
@@ -1,12 +1,35 @@
 package com.dhami.hospital.management.System;
 
+import com.dhami.hospital.management.System.dto.PatientSummary;
+import com.dhami.hospital.management.System.dto.ScrollResponse;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Gender;
 import com.dhami.hospital.management.System.entity.Patient;
 import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.PatientService;
+import com.dhami.hospital.management.System.service.PatientService.PatientOrder;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 public class PatientTests {
@@ -14,6 +37,14 @@ public class PatientTests {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Test
     public void testPatientRepository() {
@@ -22,4 +53,87 @@ public class PatientTests {
         System.out.println(patientList);
 
     }
+
+    // the entity graph fetches patients, appointments and doctors in one statement -> nothing left to load lazily
+    @Test
+    public void testPatientWithAppointmentsAndDoctorGraph() {
+        QueryCounter.reset();
+        List<Patient> patientList = transactionTemplate.execute(status -> patientRepository.findAllWithAppointmentsAndDoctor());
+        List<String> statements = QueryCounter.statements();
+        QueryCounter.stop();
+
+        assertEquals(1, statements.size(), statements.toString());
+        assertTrue(patientList.stream().anyMatch(patient -> !patient.getAppointments().isEmpty()));
+        for (Patient patient : patientList) {
+            assertTrue(Hibernate.isInitialized(patient.getAppointments()), patient.getName());
+            for (Appointment appointment : patient.getAppointments()) {
+                assertTrue(Hibernate.isInitialized(appointment.getDoctor()), patient.getName());
+            }
+        }
+    }
+
+    @Test
+    public void testScrollByBirthDateListsPatientsWithoutOneLast() {
+        Long unborn = newPatient(null);
+        Long born = newPatient(LocalDate.of(1977, 7, 7));
+
+        // the page ends exactly where the patients with a birth date do -> the token continues with the others
+        int withBirthDate = (int) patientRepository.findAll().stream().filter(patient -> patient.getBirthDate() != null).count();
+        for (int size : List.of(7, withBirthDate)) {
+            List<PatientSummary> scrolled = scrollAll(size);
+            assertEquals(patientRepository.count(), scrolled.size(), "size " + size);
+            assertEquals(scrolled.size(), new HashSet<>(scrolled.stream().map(PatientSummary::id).toList()).size());
+            assertTrue(scrolled.stream().anyMatch(patient -> patient.id().equals(born)));
+            assertTrue(scrolled.stream().anyMatch(patient -> patient.id().equals(unborn)));
+
+            for (int i = 1; i < scrolled.size(); i++) {
+                PatientSummary previous = scrolled.get(i - 1);
+                PatientSummary current = scrolled.get(i);
+                if (current.birthDate() != null) {
+                    assertNotNull(previous.birthDate(), "patients without a birth date come last");
+                    assertFalse(current.birthDate().isBefore(previous.birthDate()));
+                } else if (previous.birthDate() == null) {
+                    assertTrue(current.id() > previous.id());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedScrollTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> scroll("birthDate:D:1990-13-45|id:L:1"));
+        assertThrows(IllegalArgumentException.class, () -> scroll("birthDate:D:1990-01-01|id:L:x"));
+        assertThrows(IllegalArgumentException.class, () -> scroll("birthDate:X:1990-01-01"));
+        assertThrows(IllegalArgumentException.class, () -> patientService.scrollPatients(PatientOrder.BIRTH_DATE, "not base64!", 10));
+        // a well-formed token decodes to the position it was made from
+        assertNull(scroll("birthDate:D:9999-12-31|id:L:" + Long.MAX_VALUE).next());
+    }
+
+    private ScrollResponse<PatientSummary> scroll(String rawToken) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(rawToken.getBytes(StandardCharsets.UTF_8));
+        return patientService.scrollPatients(PatientOrder.BIRTH_DATE, token, 10);
+    }
+
+    private List<PatientSummary> scrollAll(int size) {
+        List<PatientSummary> scrolled = new ArrayList<>();
+        String token = null;
+        do {
+            ScrollResponse<PatientSummary> page = patientService.scrollPatients(PatientOrder.BIRTH_DATE, token, size);
+            scrolled.addAll(page.items());
+            token = page.next();
+        } while (token != null);
+        return scrolled;
+    }
+
+    private Long newPatient(LocalDate birthDate) {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName("Scroll " + UUID.randomUUID().toString().substring(0, 8));
+            patient.setGender(Gender.MALE);
+            patient.setBirthDate(birthDate);
+            patient.setEmail(UUID.randomUUID() + "@scroll.example.com");
+            entityManager.persist(patient);
+            return patient.getId();
+        });
+    }
 }
@@ -0,0 +1,190 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult.Outcome;
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.InsuranceRepository;
+import com.dhami.hospital.management.System.service.InsuranceService;
+import com.dhami.hospital.management.System.service.PatientService;
+import com.dhami.hospital.management.System.service.SearchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class PatientUpsertTests {
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1985, 3, 14);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private InsuranceService insuranceService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testReimportReportsInsertedUnchangedAndUpdated() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        List<PatientImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(row("Upsert " + token + " " + i, token + "." + i, BloodGroup.O_POSITIVE,
+                    policy("UPS-" + token + "-" + i, LocalDate.now().plusYears(1))));
+        }
+
+        List<PatientUpsertResult> inserted = patientService.upsertPatients(rows);
+        assertTrue(inserted.stream().allMatch(result -> result.patient() == Outcome.INSERTED && result.insurance() == Outcome.INSERTED));
+
+        // same feed again -> nothing rewritten
+        List<PatientUpsertResult> unchanged = patientService.upsertPatients(rows);
+        assertTrue(unchanged.stream().allMatch(result -> result.patient() == Outcome.UNCHANGED && result.insurance() == Outcome.UNCHANGED));
+        assertEquals(ids(inserted), ids(unchanged));
+        assertEquals(0, patient(inserted.getFirst().patientId()).getVersion());
+
+        // one blood group, one policy end date changed
+        rows.set(1, row(rows.get(1).name(), token + ".1", BloodGroup.B_NEGATIVE, rows.get(1).insurance()));
+        rows.set(2, row(rows.get(2).name(), token + ".2", BloodGroup.O_POSITIVE, policy("UPS-" + token + "-2", LocalDate.now().plusYears(2))));
+        List<PatientUpsertResult> updated = patientService.upsertPatients(rows);
+        assertEquals(List.of(Outcome.UNCHANGED, Outcome.UPDATED, Outcome.UNCHANGED), updated.stream().map(PatientUpsertResult::patient).toList());
+        assertEquals(List.of(Outcome.UNCHANGED, Outcome.UNCHANGED, Outcome.UPDATED), updated.stream().map(PatientUpsertResult::insurance).toList());
+        assertEquals(ids(inserted), ids(updated));
+
+        Patient patient = patient(updated.get(1).patientId());
+        assertEquals(BloodGroup.B_NEGATIVE, patient.getBloodGroup());
+        assertEquals(1, patient.getVersion());
+        assertEquals(LocalDate.now().plusYears(2), insuranceRepository.findById(updated.get(2).insuranceId()).orElseThrow().getValidUntil());
+    }
+
+    @Test
+    public void testNewPolicyReplacesAndDeletesTheOldOne() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        String name = "Upsert " + token;
+        PatientUpsertResult first = patientService.upsertPatients(List.of(
+                row(name, token, BloodGroup.A_POSITIVE, policy("UPS-" + token + "-old", LocalDate.now().plusYears(1))))).getFirst();
+        assertTrue(insuranceService.isValid("UPS-" + token + "-old"));
+
+        // no insurance in the feed -> the current policy stays
+        PatientUpsertResult withoutPolicy = patientService.upsertPatients(List.of(row(name, token, BloodGroup.A_POSITIVE, null))).getFirst();
+        assertEquals(Outcome.UNCHANGED, withoutPolicy.patient());
+        assertNull(withoutPolicy.insurance());
+        assertEquals(first.insuranceId(), patient(first.patientId()).getInsurance().getId());
+
+        PatientUpsertResult replaced = patientService.upsertPatients(List.of(
+                row(name, token, BloodGroup.A_POSITIVE, policy("UPS-" + token + "-new", LocalDate.now().plusYears(1))))).getFirst();
+        assertEquals(Outcome.UPDATED, replaced.patient());
+        assertEquals(Outcome.INSERTED, replaced.insurance());
+        assertEquals(first.insuranceId(), replaced.replacedInsuranceId());
+        assertEquals(replaced.insuranceId(), patient(first.patientId()).getInsurance().getId());
+        assertFalse(insuranceRepository.existsById(first.insuranceId()));
+        assertFalse(insuranceService.isValid("UPS-" + token + "-old"));
+        assertTrue(insuranceService.isValid("UPS-" + token + "-new"));
+    }
+
+    @Test
+    public void testCachedInsuranceAndSearchFollowTheUpsert() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        String policyNumber = "UPS-" + token;
+        PatientUpsertResult inserted = patientService.upsertPatients(List.of(
+                row("Upsertcache " + token, token, BloodGroup.AB_POSITIVE, policy(policyNumber, LocalDate.now().plusDays(10))))).getFirst();
+        assertEquals(List.of(inserted.patientId()), searchService.searchPatients("upsertcache " + token, 10).stream().map(SearchHit::id).toList());
+
+        // second level cache holds the insurance now
+        assertEquals(LocalDate.now().plusDays(10), insurance(inserted.insuranceId()).getValidUntil());
+        patientService.upsertPatients(List.of(row("Upsertcache " + token, token, BloodGroup.AB_POSITIVE,
+                policy(policyNumber, LocalDate.now().minusDays(1)))));
+        assertEquals(LocalDate.now().minusDays(1), insurance(inserted.insuranceId()).getValidUntil());
+        assertFalse(insuranceService.isValid(policyNumber));
+    }
+
+    @Test
+    public void testSameKeyTwiceLaterRowWins() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        List<PatientUpsertResult> results = patientService.upsertPatients(List.of(
+                row("Upsert " + token, token, BloodGroup.A_NEGATIVE, null),
+                row("Upsert " + token, token, BloodGroup.B_POSITIVE, null)));
+        assertEquals(results.get(0), results.get(1));
+        assertEquals(BloodGroup.B_POSITIVE, patient(results.get(1).patientId()).getBloodGroup());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> patientService.upsertPatients(List.of(row("Upsert " + token, null, BloodGroup.A_NEGATIVE, null))));
+    }
+
+    // another patient's email would abort the whole multi-row statement -> only that row is skipped
+    @Test
+    public void testEmailOfAnotherPatientOnlyRejectsItsRow() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        Long owner = patientService.upsertPatients(List.of(row("Upsert owner " + token, token, BloodGroup.A_POSITIVE, null)))
+                .getFirst().patientId();
+        String policyNumber = "UPS-" + token;
+
+        List<PatientUpsertResult> results = patientService.upsertPatients(List.of(
+                row("Upsert taken " + token, token, BloodGroup.B_NEGATIVE, policy(policyNumber, LocalDate.now().plusYears(1))),
+                row("Upsert other " + token, token + ".other", BloodGroup.O_NEGATIVE, null),
+                row("Upsert twice " + token, token + ".other", BloodGroup.O_NEGATIVE, null)));
+
+        assertEquals(List.of(Outcome.EMAIL_TAKEN, Outcome.INSERTED, Outcome.EMAIL_TAKEN),
+                results.stream().map(PatientUpsertResult::patient).toList());
+        assertNull(results.getFirst().patientId());
+        assertEquals(token + "@upsert.example.com", patient(owner).getEmail());
+        assertTrue(insuranceRepository.findByPolicyNumber(policyNumber).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> patientService.upsertPatients(List.of(
+                new PatientImportRow("Upsert " + token, Gender.FEMALE, BIRTH_DATE, " ", BloodGroup.A_NEGATIVE, null, List.of()))));
+    }
+
+    private Patient patient(Long id) {
+        return transactionTemplate.execute(status -> {
+            Patient patient = entityManager.find(Patient.class, id);
+            if (patient.getInsurance() != null) {
+                patient.getInsurance().getValidUntil();
+            }
+            return patient;
+        });
+    }
+
+    private Insurance insurance(Long id) {
+        return transactionTemplate.execute(status -> entityManager.find(Insurance.class, id));
+    }
+
+    private static List<Long> ids(List<PatientUpsertResult> results) {
+        return results.stream().map(PatientUpsertResult::patientId).toList();
+    }
+
+    private static PatientImportRow row(String name, String email, BloodGroup bloodGroup, PatientImportRow.InsuranceRow insurance) {
+        return new PatientImportRow(name, Gender.FEMALE, BIRTH_DATE, email == null ? null : email + "@upsert.example.com",
+                bloodGroup, insurance, List.of());
+    }
+
+    private static PatientImportRow.InsuranceRow policy(String policyNumber, LocalDate validUntil) {
+        return new PatientImportRow.InsuranceRow(policyNumber, "Upsert Provider", validUntil);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class PersistenceMetricsTests {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${hospital.jpa.slow-query-threshold-ms}")
+    private long slowQueryThresholdMs;
+
+    @Test
+    public void testRepositoryAndHibernateMetricsAreExported() {
+        doctorRepository.count();
+
+        Timer count = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "DoctorRepository").tag("method", "count").timer();
+        assertNotNull(count);
+        assertTrue(count.count() >= 1);
+        assertNotNull(meterRegistry.find("hibernate.statements").meter());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").meter());
+
+        // no meter per HQL string
+        assertTrue(meterRegistry.find("hibernate.query").meters().isEmpty());
+        assertFalse(meterRegistry.getMeters().stream().anyMatch(meter -> meter.getId().getTag("query") != null));
+    }
+
+    @Test
+    public void testSlowQueryThresholdReachesHibernate() {
+        long logSlowQuery = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getSqlStatementLogger().getLogSlowQuery();
+        assertEquals(200, slowQueryThresholdMs);
+        assertEquals(slowQueryThresholdMs, logSlowQuery);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.AppointmentResponse;
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.support.MaxQueries;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// statement budgets for the hot listing scenarios, a new lazy-load loop breaks these
+@SpringBootTest
+@Transactional
+public class QueryBudgetTests {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    @MaxQueries(1)
+    public void testListPatientsWithAppointmentsAndDoctors() {
+        for (Patient patient : patientRepository.findAllWithAppointmentsAndDoctor()) {
+            for (Appointment appointment : patient.getAppointments()) {
+                appointment.getDoctor().getName();
+            }
+        }
+    }
+
+    @Test
+    @MaxQueries(1)
+    public void testListPatientSummaries() {
+        patientRepository.findAllPatientSummaries();
+    }
+
+    // reason is a lazy column, the agenda fetches it with the same select (no select per appointment)
+    @Test
+    @MaxQueries(1)
+    public void testDoctorAgendaWithReasons() {
+        appointmentRepository.findDoctorAgenda(1L, LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2030, 1, 1, 0, 0))
+                .forEach(AppointmentResponse::from);
+    }
+
+    @Test
+    @MaxQueries(1)
+    public void testListAppointmentSlots() {
+        appointmentRepository.findSlotViewsBetween(LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,69 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.entity.Appointment;
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.service.ReferenceDataCacheService;
+import com.dhami.hospital.management.System.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ReferenceDataCacheTests {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testDoctorIsServedFromSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        referenceDataCacheService.evictAll();
+
+        transactionTemplate.executeWithoutResult(status -> doctorRepository.findById(1L).orElseThrow());
+        long hitsBefore = statistics.getSecondLevelCacheHitCount();
+        transactionTemplate.executeWithoutResult(status -> doctorRepository.findById(1L).orElseThrow());
+
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitsBefore);
+    }
+
+    @Test
+    public void testAppointmentListingStatementsDropWhenDoctorsAreCached() {
+        referenceDataCacheService.evictAll();
+
+        long cold = countStatements();
+        long warm = countStatements();
+        System.out.println("appointment listing statements: cold=" + cold + " warm=" + warm);
+
+        assertTrue(warm < cold);
+    }
+
+    // statements of this thread only, background jobs (outbox relay polling) run their own selects meanwhile
+    private long countStatements() {
+        QueryCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Appointment appointment : appointmentRepository.findAll()) {
+                appointment.getDoctor().getName(); // touch the lazy doctor like an appointment view does
+            }
+        });
+        return QueryCounter.count();
+    }
+}
@@ -0,0 +1,132 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.config.BulkheadDataSource;
+import com.dhami.hospital.management.System.config.ReplicaDataSource;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.service.PatientService;
+import org.junit.jupiter.api.Test;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/*
+stand-in replica: a second, read-only pool on the same database
+-> shows which pool served a transaction, lag is set by hand (no real replication here)
+-> own context on the same database that stays cached, its outbox relay is off so OutboxRelayTests keep their events
+-> the connection bulkhead is on as well (replica + virtual-threads profiles together)
+ */
+@SpringBootTest(properties = {
+        "hospital.datasource.replica.enabled=true",
+        "hospital.datasource.replica.pool.jdbc-url=${spring.datasource.url}",
+        "hospital.datasource.replica.pool.username=${spring.datasource.username}",
+        "hospital.datasource.replica.pool.password=${spring.datasource.password}",
+        "hospital.datasource.replica.pool.maximum-pool-size=2",
+        "hospital.datasource.replica.lag-query=SELECT 0",
+        "hospital.datasource.replica.lag-check-interval=1h",
+        "hospital.datasource.bulkhead.enabled=true",
+        "hospital.outbox.relay.enabled=false"
+})
+public class ReplicaRoutingTests {
+
+    @Autowired
+    private ReplicaDataSource replicaReadDataSource;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testReadOnlyTransactionsUseReplicaAndWritesThePrimary() {
+        long replicaReads = replicaReadDataSource.replicaConnections();
+        long primaryReads = replicaReadDataSource.primaryConnections();
+
+        patientService.getPatientSummaries();
+        assertEquals(replicaReads + 1, replicaReadDataSource.replicaConnections());
+
+        // read-write transaction -> never asks for a read-only connection (the replica pool would reject the insert)
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Replica " + UUID.randomUUID());
+        doctor.setEmail(UUID.randomUUID() + "@replica.example.com");
+        doctorRepository.save(doctor);
+        assertEquals(replicaReads + 1, replicaReadDataSource.replicaConnections());
+        assertEquals(primaryReads, replicaReadDataSource.primaryConnections());
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToPrimary() {
+        long replicaReads = replicaReadDataSource.replicaConnections();
+        long primaryReads = replicaReadDataSource.primaryConnections();
+
+        replicaReadDataSource.recordLag(Duration.ofMinutes(1));
+        try {
+            patientService.getPatientSummaries();
+            assertEquals(primaryReads + 1, replicaReadDataSource.primaryConnections());
+            assertEquals(replicaReads, replicaReadDataSource.replicaConnections());
+        } finally {
+            replicaReadDataSource.recordLag(Duration.ZERO);
+        }
+
+        patientService.getPatientSummaries();
+        assertEquals(replicaReads + 1, replicaReadDataSource.replicaConnections());
+    }
+
+    @Test
+    public void testEachPoolHasItsOwnBulkheadTakenOnlyForPhysicalConnections() throws SQLException {
+        // the lazy routing proxy itself is not wrapped, the pools behind it are, each sized like its pool
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        BulkheadDataSource primary = assertInstanceOf(BulkheadDataSource.class, primaryDataSource);
+        BulkheadDataSource replica = assertInstanceOf(BulkheadDataSource.class, replicaDataSource);
+        int primaryPermits = primary.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        assertEquals(primaryPermits, primary.availablePermits());
+        assertEquals(2, replica.availablePermits());
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            // transaction started, no statement yet -> no connection fetched, no permit taken
+            assertEquals(primaryPermits, primary.availablePermits());
+            assertEquals(2, replica.availablePermits());
+
+            doctorRepository.count();
+            assertEquals(primaryPermits, primary.availablePermits());
+            assertEquals(1, replica.availablePermits());
+        });
+        assertEquals(2, replica.availablePermits());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            doctorRepository.count();
+            assertEquals(primaryPermits - 1, primary.availablePermits());
+            assertEquals(2, replica.availablePermits());
+        });
+        assertEquals(primaryPermits, primary.availablePermits());
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.AvailableSlot;
+import com.dhami.hospital.management.System.dto.BookingRequest;
+import com.dhami.hospital.management.System.service.SchedulingService;
+import com.dhami.hospital.management.System.service.SlotUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class SchedulingConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private SchedulingService schedulingService;
+
+    @Test
+    public void testConcurrentBookingsNeverOverlap() throws Exception {
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(10, 1000)).atTime(10, 0);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                // everyone wants 10:00 - 10:20 on the same doctor, all of these overlap each other
+                LocalDateTime time = slot.plusMinutes((i % 3) * 10L);
+                long patientId = (i % 5) + 1;
+                results.add(executor.submit(() -> {
+                    go.await();
+                    try {
+                        schedulingService.book(new BookingRequest(patientId, 1L, time, "Concurrency test"));
+                        return true;
+                    } catch (SlotUnavailableException | DataIntegrityViolationException e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+
+            int booked = 0;
+            for (Future<Boolean> result : results) {
+                booked += result.get() ? 1 : 0;
+            }
+            assertEquals(1, booked);
+        }
+    }
+
+    @Test
+    public void testNextFreeSlotSkipsBookedSlot() {
+        LocalDateTime slot = LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(1000, 2000)).atTime(9, 0);
+        schedulingService.book(new BookingRequest(1L, 2L, slot, "Slot search test"));
+
+        long start = System.nanoTime();
+        AvailableSlot next = schedulingService.nextFreeSlot(2L, slot).orElseThrow();
+        System.out.println("next free slot " + next.start() + " found in " + (System.nanoTime() - start) / 1000 + " us");
+
+        assertTrue(next.start().isAfter(slot));
+    }
+}
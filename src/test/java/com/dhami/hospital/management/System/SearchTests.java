@@ -0,0 +1,126 @@
+package com.dhami.hospital.management.System;
+
+import com.dhami.hospital.management.System.dto.SearchHit;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Doctor;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.DoctorRepository;
+import com.dhami.hospital.management.System.service.PatientService;
+import com.dhami.hospital.management.System.service.SearchIndex;
+import com.dhami.hospital.management.System.service.SearchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class SearchTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testPatientSearchFollowsWritesAndRanksExactWordsFirst() {
+        String token = randomWord();
+        Patient exact = newPatient("Marsh " + token, "jose." + token);
+        Patient prefix = newPatient("Marshall " + token, "m." + token);
+
+        assertEquals(List.of(exact.getId(), prefix.getId()), ids(searchService.searchPatients("MARSH " + token, 10)));
+        assertEquals(List.of(exact.getId()), ids(searchService.searchPatients("josé " + token, 10))); // email words, accents
+        assertEquals(List.of(prefix.getId()), ids(searchService.searchPatients(token.substring(0, 5) + " marshall", 10)));
+
+        // rename -> visible after commit, old words are gone
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Patient.class, exact.getId()).setName("Fenwick " + token));
+        assertEquals(List.of(exact.getId()), ids(searchService.searchPatients("fenw " + token, 10)));
+        assertEquals(List.of(prefix.getId()), ids(searchService.searchPatients("marsh " + token, 10)));
+
+        // bulk delete bypasses the entity listeners
+        patientService.deletePatients(List.of(exact.getId(), prefix.getId()));
+        assertTrue(searchService.searchPatients(token, 10).isEmpty());
+    }
+
+    @Test
+    public void testTwoCommonTermsFindTheirFewCommonDocuments() {
+        SearchIndex index = new SearchIndex(SearchHit::name);
+        List<SearchHit> hits = new ArrayList<>();
+        long id = 1;
+        // thousands of Johns and of Smiths each, the five John Smiths come last in every posting list
+        for (int i = 0; i < 3_000; i++) {
+            hits.add(new SearchHit(id++, "John Miller", null));
+            hits.add(new SearchHit(id++, "Anna Smith", null));
+        }
+        List<Long> johnSmiths = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            johnSmiths.add(id);
+            hits.add(new SearchHit(id++, "John Smith", null));
+        }
+        index.replaceAll(hits);
+
+        assertEquals(johnSmiths, ids(index.search("john smith", 10)).stream().sorted().toList());
+        assertEquals(johnSmiths, ids(index.search("jo smi", 10)).stream().sorted().toList());
+        assertEquals(10, index.search("john", 10).size());
+    }
+
+    @Test
+    public void testDoctorSearchBySpecialization() {
+        String token = randomWord();
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Quinn " + token);
+        doctor.setSpecialization("Paediatric Cardiology");
+        doctor.setEmail(UUID.randomUUID() + "@search.example.com");
+        doctorRepository.save(doctor);
+
+        assertEquals(List.of(doctor.getId()), ids(searchService.searchDoctors("cardio " + token, 10)));
+        assertTrue(searchService.searchDoctors("cardiology", 50).stream().anyMatch(hit -> hit.id().equals(doctor.getId())));
+        assertTrue(searchService.searchDoctors("   ", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+
+    // letters only, unique enough to keep the assertions independent of other test data
+    private static String randomWord() {
+        StringBuilder word = new StringBuilder("zq");
+        for (int i = 0; i < 8; i++) {
+            word.append((char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private Patient newPatient(String name, String emailLocalPart) {
+        return transactionTemplate.execute(status -> {
+            Patient patient = new Patient();
+            patient.setName(name);
+            patient.setGender(Gender.MALE);
+            patient.setBirthDate(LocalDate.of(1975, 3, 3));
+            patient.setEmail(emailLocalPart + "@search.example.com");
+            patient.setBloodGroup(BloodGroup.AB_POSITIVE);
+            entityManager.persist(patient);
+            return patient;
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.repository.AppointmentRepository;
+import com.dhami.hospital.management.System.service.AppointmentPartitionMaintenance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+current week queries while the appointment history grows (postgres, partitioned appointment table)
+-> fixed current week: 200 doctors x 40 slots
+-> history is added in steps (default 1M -> 10M -> 100M rows, one every 3 seconds going forward from
+   ten years ago, always before the current month) with generate_series + ANALYZE
+-> after every step: p50 / p99 of the week's doctor agenda and slot list, EXPLAIN of the week range
+the week only ever touches the current month partition(s), so latency stays flat while the table grows 100x
+seeding 100M rows takes a long time, runs on demand only:
+./mvnw test -Dtest=AppointmentPartitionBenchmarkTests -Dhospital.partition-benchmark=true
+(-Dhospital.partition-benchmark.rows=1000000,10000000 for a shorter run)
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "hospital.partition-benchmark", matches = "true")
+public class AppointmentPartitionBenchmarkTests {
+
+    private static final long ID_BASE = 10_000_000_000L;
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 50_000;
+    private static final int WEEK_SLOTS_PER_DOCTOR = 40;
+    private static final int INSERT_CHUNK = 5_000_000;
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private LocalDateTime weekStart;
+    private LocalDateTime historyStart;
+    private long historyRows;
+
+    @BeforeAll
+    public void seed() {
+        weekStart = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        YearMonth firstHistoryMonth = YearMonth.from(weekStart).minusYears(10);
+        historyStart = firstHistoryMonth.atDay(1).atStartOfDay();
+        partitionMaintenance.createPartitions(firstHistoryMonth, YearMonth.from(weekStart).plusMonths(1));
+
+        jdbcTemplate.update("INSERT INTO doctor (id, name, specialization, email) " +
+                "SELECT ? + g, 'Partition Doctor ' || g, 'Partition', 'partition.doctor' || g || '@example.com' " +
+                "FROM generate_series(1, ?) g", ID_BASE, DOCTORS);
+        jdbcTemplate.update("INSERT INTO patient (id, name, gender, birth_date, email, blood_group) " +
+                "SELECT ? + g, 'Partition ' || g, 'FEMALE', DATE '1960-01-01' + g % 20000, " +
+                "'partition.patient' || g || '@example.com', 'A_POSITIVE' FROM generate_series(1, ?) g", ID_BASE, PATIENTS);
+        // the week: every doctor, 8 morning slots of 30 minutes from monday to friday
+        jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, reason, doctor_id, patient_id) " +
+                "SELECT ? + g, ? + (g / ? % 5) * INTERVAL '1 day' + INTERVAL '9 hours' + (g / ? / 5) * INTERVAL '30 minutes', " +
+                "'Partition week', ? + 1 + g % ?, ? + 1 + g % ? FROM generate_series(0, ? - 1) g",
+                ID_BASE, weekStart, DOCTORS, DOCTORS, ID_BASE, DOCTORS, ID_BASE, PATIENTS, DOCTORS * WEEK_SLOTS_PER_DOCTOR);
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM patient WHERE id > ?", ID_BASE);
+        jdbcTemplate.update("DELETE FROM doctor WHERE id > ?", ID_BASE);
+    }
+
+    @Test
+    public void currentWeekStaysFlatAsHistoryGrows() {
+        List<long[]> agendaTimings = new ArrayList<>();
+        for (long rows : sizes()) {
+            growHistory(rows);
+            long[] agenda = measure(() -> appointmentRepository.findDoctorAgenda(ID_BASE + 7, weekStart, weekStart.plusWeeks(1)));
+            long[] slots = measure(() -> appointmentRepository.findSlotViewsBetween(weekStart, weekStart.plusWeeks(1)));
+            agendaTimings.add(agenda);
+            System.out.printf("history %,13d rows : agenda p50 %.3f ms p99 %.3f ms | week slots p50 %.3f ms p99 %.3f ms%n",
+                    rows, agenda[0] / 1e6, agenda[1] / 1e6, slots[0] / 1e6, slots[1] / 1e6);
+
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM appointment " +
+                    "WHERE appointment_time >= ? AND appointment_time < ?", String.class, weekStart, weekStart.plusWeeks(1)));
+            for (YearMonth month = YearMonth.from(historyStart); month.isBefore(YearMonth.from(weekStart)); month = month.plusMonths(1)) {
+                assertFalse(plan.contains(AppointmentPartitionMaintenance.partitionName(month) + " "),
+                        "history partition " + month + " not pruned:\n" + plan);
+            }
+        }
+        // 100x more history, the agenda may not get meaningfully slower (1 ms slack for timer noise)
+        long first = agendaTimings.getFirst()[0];
+        long last = agendaTimings.getLast()[0];
+        assertTrue(last <= first * 2 + 1_000_000, "agenda p50 went from " + first + " ns to " + last + " ns");
+    }
+
+    // one appointment every 3 seconds from historyStart on, 100M rows stay ~9.5 years -> before the current month
+    private void growHistory(long targetRows) {
+        while (historyRows < targetRows) {
+            long from = historyRows;
+            long to = Math.min(targetRows, historyRows + INSERT_CHUNK);
+            jdbcTemplate.update("INSERT INTO appointment (id, appointment_time, reason, doctor_id, patient_id) " +
+                    "SELECT ? + 1000000 + g, ? + g * INTERVAL '3 seconds', 'Partition history', ? + 1 + g % ?, ? + 1 + g % ? " +
+                    "FROM generate_series(?, ? - 1) g",
+                    ID_BASE, historyStart, ID_BASE, DOCTORS, ID_BASE, PATIENTS, from, to);
+            historyRows = to;
+        }
+        jdbcTemplate.execute("ANALYZE appointment");
+    }
+
+    // p50 / p99 in ns over ROUNDS runs, after a warmup
+    private long[] measure(Supplier<List<?>> query) {
+        for (int i = 0; i < 20; i++) {
+            transactionTemplate.execute(status -> query.get());
+        }
+        long[] timings = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            transactionTemplate.execute(status -> query.get());
+            timings[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(timings);
+        return new long[]{timings[ROUNDS / 2], timings[ROUNDS * 99 / 100]};
+    }
+
+    private static long[] sizes() {
+        return Arrays.stream(System.getProperty("hospital.partition-benchmark.rows", "1000000,10000000,100000000").split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+}
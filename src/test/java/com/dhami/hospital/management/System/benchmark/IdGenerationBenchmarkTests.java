@@ -0,0 +1,78 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/*
+IDENTITY vs pooled SEQUENCE insert throughput (rows/sec).
+IDENTITY -> hibernate must run every INSERT alone to read back the key, so jdbc batching is off
+SEQUENCE -> ids are handed out from a block of 50 in memory, inserts go as jdbc batches
+inserts 21k rows and only prints, runs on demand only (the rows are deleted again afterwards):
+./mvnw test -Dtest=IdGenerationBenchmarkTests -Dhospital.id-benchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hospital.id-benchmark", matches = "true")
+public class IdGenerationBenchmarkTests {
+
+    private static final int ROWS = 10_000;
+    private static final int CHUNK = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void compareIdentityAndSequenceInsertThroughput() {
+        // warm up both paths once so the first measurement does not pay class loading / jit
+        insertRows(500, IdentityKeyedRow::new);
+        insertRows(500, SequenceKeyedRow::new);
+
+        double identityRowsPerSec = insertRows(ROWS, IdentityKeyedRow::new);
+        double sequenceRowsPerSec = insertRows(ROWS, SequenceKeyedRow::new);
+
+        System.out.printf("IDENTITY : %,.0f rows/sec%n", identityRowsPerSec);
+        System.out.printf("SEQUENCE : %,.0f rows/sec (%.1fx)%n", sequenceRowsPerSec, sequenceRowsPerSec / identityRowsPerSec);
+    }
+
+    // the bench tables only ever hold rows of this benchmark
+    @AfterEach
+    public void deleteRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM IdentityKeyedRow").executeUpdate();
+            entityManager.createQuery("DELETE FROM SequenceKeyedRow").executeUpdate();
+        });
+    }
+
+    private double insertRows(int rows, Supplier<Object> factory) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows; i++) {
+                Object row = factory.get();
+                if (row instanceof IdentityKeyedRow identityRow) {
+                    identityRow.setAppointmentTime(LocalDateTime.now());
+                    identityRow.setReason("Benchmark " + i);
+                } else if (row instanceof SequenceKeyedRow sequenceRow) {
+                    sequenceRow.setAppointmentTime(LocalDateTime.now());
+                    sequenceRow.setReason("Benchmark " + i);
+                }
+                entityManager.persist(row);
+                if ((i + 1) % CHUNK == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return rows / seconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//benchmark only - same shape as appointment but with the old IDENTITY key
+@Entity
+@Table(name = "bench_identity_row")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdentityKeyedRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDateTime appointmentTime;
+
+    @Column(length = 500)
+    private String reason;
+}
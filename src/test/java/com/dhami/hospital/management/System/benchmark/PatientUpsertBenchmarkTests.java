@@ -0,0 +1,141 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.dto.PatientImportRow;
+import com.dhami.hospital.management.System.dto.PatientUpsertResult;
+import com.dhami.hospital.management.System.entity.BloodGroup;
+import com.dhami.hospital.management.System.entity.Gender;
+import com.dhami.hospital.management.System.entity.Insurance;
+import com.dhami.hospital.management.System.entity.Patient;
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import com.dhami.hospital.management.System.service.PatientService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+re-import throughput (rows/sec) of a patient feed with insurance: first import (all new) + re-import (all changed)
+JPA loop -> per row: select by (name, birth_date) with the insurance, then persist or dirty check, jdbc batches of 50
+upsert   -> PatientService.upsertPatients: 2 statements per 1000 rows (insurance + patient), plain jdbc
+wall clock comparison (tens of seconds, noisy on a loaded machine), runs on demand only,
+the upsert semantics are covered by PatientUpsertTests:
+./mvnw test -Dtest=PatientUpsertBenchmarkTests -Dhospital.upsert-benchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "hospital.upsert-benchmark", matches = "true")
+public class PatientUpsertBenchmarkTests {
+
+    private static final int ROWS = 2_000;
+    private static final int CHUNK = 50;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void compareUpsertAndJpaSaveLoopThroughput() {
+        Set<Long> ids = new HashSet<>();
+        try {
+            // warm up both paths once so the first measurement does not pay class loading / jit
+            importTwice(feed(200), this::saveLoop, ids);
+            importTwice(feed(200), this::upsert, ids);
+
+            double saveLoopRowsPerSec = importTwice(feed(ROWS), this::saveLoop, ids);
+            double upsertRowsPerSec = importTwice(feed(ROWS), this::upsert, ids);
+
+            System.out.printf("JPA save loop : %,.0f rows/sec%n", saveLoopRowsPerSec);
+            System.out.printf("upsert        : %,.0f rows/sec (%.1fx)%n", upsertRowsPerSec, upsertRowsPerSec / saveLoopRowsPerSec);
+            assertTrue(upsertRowsPerSec >= saveLoopRowsPerSec * 10,
+                    "upsert " + upsertRowsPerSec + " rows/sec vs save loop " + saveLoopRowsPerSec + " rows/sec");
+        } finally {
+            patientService.deletePatients(List.copyOf(ids));
+        }
+    }
+
+    // first import + re-import with a new blood group and policy end date on every row, rows/sec over both
+    private double importTwice(List<PatientImportRow> rows, Function<List<PatientImportRow>, List<Long>> importer, Set<Long> ids) {
+        List<PatientImportRow> changed = rows.stream()
+                .map(row -> new PatientImportRow(row.name(), row.gender(), row.birthDate(), row.email(), BloodGroup.AB_NEGATIVE,
+                        new PatientImportRow.InsuranceRow(row.insurance().policyNumber(), row.insurance().provider(),
+                                row.insurance().validUntil().plusYears(1)),
+                        row.appointments()))
+                .toList();
+        long start = System.nanoTime();
+        List<Long> inserted = importer.apply(rows);
+        List<Long> updated = importer.apply(changed);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        ids.addAll(inserted);
+        assertEquals(inserted, updated);
+        assertEquals(BloodGroup.AB_NEGATIVE, patientRepository.findById(updated.getLast()).orElseThrow().getBloodGroup());
+        return rows.size() * 2 / seconds;
+    }
+
+    private List<Long> upsert(List<PatientImportRow> rows) {
+        return patientService.upsertPatients(rows).stream().map(PatientUpsertResult::patientId).toList();
+    }
+
+    private List<Long> saveLoop(List<PatientImportRow> rows) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                PatientImportRow row = rows.get(i);
+                Patient patient = entityManager.createQuery("SELECT p FROM Patient p LEFT JOIN FETCH p.insurance " +
+                                "WHERE p.name = :name AND p.birthDate = :birthDate", Patient.class)
+                        .setParameter("name", row.name())
+                        .setParameter("birthDate", row.birthDate())
+                        .getResultStream()
+                        .findFirst()
+                        .orElseGet(Patient::new);
+                patient.setName(row.name());
+                patient.setBirthDate(row.birthDate());
+                patient.setEmail(row.email());
+                patient.setGender(row.gender());
+                patient.setBloodGroup(row.bloodGroup());
+                if (patient.getInsurance() == null) {
+                    patient.setInsurance(Insurance.builder().policyNumber(row.insurance().policyNumber()).build());
+                }
+                patient.getInsurance().setProvider(row.insurance().provider());
+                patient.getInsurance().setValidUntil(row.insurance().validUntil());
+                ids.add(patientRepository.save(patient).getId());
+                if ((i + 1) % CHUNK == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return ids;
+        });
+    }
+
+    private static List<PatientImportRow> feed(int rows) {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        List<PatientImportRow> feed = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            feed.add(new PatientImportRow("Upsert bench " + token + " " + i, Gender.MALE, LocalDate.of(1970, 1, 1).plusDays(i),
+                    token + "." + i + "@upsert-bench.example.com", BloodGroup.O_POSITIVE,
+                    new PatientImportRow.InsuranceRow("UPSB-" + token + "-" + i, "Bench Provider", LocalDate.now().plusYears(1)),
+                    List.of()));
+        }
+        return feed;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import com.dhami.hospital.management.System.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+entity read (managed Patient + snapshot for dirty checking) vs PatientSummary constructor expression
+-> compares bytes allocated per row (not wall clock, so it is stable enough for the default suite)
+ */
+@SpringBootTest
+public class ProjectionBenchmarkTests {
+
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testProjectionAllocatesLessPerRowThanEntities() {
+        // first round of each warms up the query plans
+        bytesPerRow(() -> patientRepository.findAll());
+        bytesPerRow(() -> patientRepository.findAllPatientSummaries());
+
+        long entity = bytesPerRow(() -> patientRepository.findAll());
+        long projection = bytesPerRow(() -> patientRepository.findAllPatientSummaries());
+        assertTrue(projection < entity, "projection " + projection + " bytes/row vs entity " + entity + " bytes/row");
+    }
+
+    private long bytesPerRow(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long rows = 0;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            Integer size = transactionTemplate.execute(status -> query.get().size());
+            rows += size == null ? 0 : size;
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(rows > 0, "no patients to read");
+        return allocated / rows;
+    }
+}
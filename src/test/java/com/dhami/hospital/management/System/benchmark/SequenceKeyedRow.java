@@ -0,0 +1,27 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+//benchmark only - same shape as appointment with the pooled sequence key used by the real entities
+@Entity
+@Table(name = "bench_sequence_row")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SequenceKeyedRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_sequence_row_seq")
+    @SequenceGenerator(name = "bench_sequence_row_seq", sequenceName = "bench_sequence_row_seq", allocationSize = 50)
+    private Long id;
+
+    private LocalDateTime appointmentTime;
+
+    @Column(length = 500)
+    private String reason;
+}
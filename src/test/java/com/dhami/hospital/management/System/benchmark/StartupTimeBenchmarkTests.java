@@ -0,0 +1,194 @@
+package com.dhami.hospital.management.System.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/*
+time to first request of the packaged application per startup mode (postgres from application.properties)
+-> every run is a fresh JVM: clock starts before the process is spawned, stops at the first 200 of GET /patients
+   (controller + service + repository + hibernate + a pooled connection, not just an open port)
+-> default  : java -jar app.jar
+-> lazy     : --spring.profiles.active=lazy (LazyInitializationConfig)
+-> cds      : extracted jar + JDK class data sharing archive
+              java -Djarmode=tools -jar app.jar extract --destination <dir>
+              java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh -jar <dir>/app.jar   (training run)
+              java -XX:SharedArchiveFile=app.jsa -jar <dir>/app.jar
+-> aot      : -Dspring.aot.enabled=true, only when the jar was built with -Paot
+-> aot+cds+lazy : everything together (own CDS archive, trained with AOT on)
+the migrations are already applied after the first run, every mode then only validates
+packages + starts the application many times, runs on demand only:
+./mvnw -Paot -DskipTests package
+./mvnw test -Dtest=StartupTimeBenchmarkTests -Dhospital.startup-benchmark=true
+(-Dhospital.startup-benchmark.runs=10 for more runs per mode)
+ */
+@EnabledIfSystemProperty(named = "hospital.startup-benchmark", matches = "true")
+public class StartupTimeBenchmarkTests {
+
+    private static final Path WORK_DIR = Paths.get("target", "startup-benchmark");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String FIRST_REQUEST = "/patients?size=1";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+    @Test
+    public void timeToFirstRequestPerMode() throws Exception {
+        Path jar = applicationJar();
+        Files.createDirectories(WORK_DIR);
+        Path extracted = extract(jar);
+        boolean aot = isAotProcessed(jar);
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("default", List.of("-jar", jar.toString()));
+        modes.put("lazy", List.of("-jar", jar.toString(), "--spring.profiles.active=lazy"));
+        modes.put("cds", List.of("-XX:SharedArchiveFile=" + train(extracted, "app.jsa", List.of()),
+                "-jar", extracted.toString()));
+        if (aot) {
+            modes.put("aot", List.of("-Dspring.aot.enabled=true", "-jar", jar.toString()));
+            modes.put("aot+cds+lazy", List.of("-XX:SharedArchiveFile=" + train(extracted, "app-aot.jsa", List.of("-Dspring.aot.enabled=true")),
+                    "-Dspring.aot.enabled=true", "-jar", extracted.toString(), "--spring.profiles.active=lazy"));
+        } else {
+            System.out.println("jar built without -Paot, aot modes skipped");
+        }
+
+        int runs = Integer.getInteger("hospital.startup-benchmark.runs", 5);
+        Map<String, Long> medians = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            timeToFirstRequest(mode.getKey() + "-warmup", mode.getValue()); // page cache, first validation after a migrate
+            long[] timings = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                timings[i] = timeToFirstRequest(mode.getKey() + "-" + i, mode.getValue());
+            }
+            Arrays.sort(timings);
+            medians.put(mode.getKey(), timings[runs / 2]);
+            System.out.printf("%-13s : time to first request p50 %,6d ms min %,6d ms max %,6d ms%n",
+                    mode.getKey(), timings[runs / 2], timings[0], timings[runs - 1]);
+        }
+
+        String fastest = aot ? "aot+cds+lazy" : "cds";
+        assertTrue(medians.get(fastest) < medians.get("default"),
+                fastest + " " + medians.get(fastest) + " ms vs default " + medians.get("default") + " ms");
+    }
+
+    // ms from spawning the JVM to the first 200, the process is stopped afterwards
+    private long timeToFirstRequest(String run, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(List.of(java));
+        args.addAll(command);
+        args.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + FIRST_REQUEST))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK_DIR.resolve(run + ".log").toFile())
+                .start();
+        try {
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    fail(run + " exited with " + process.exitValue() + ", see " + WORK_DIR.resolve(run + ".log"));
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (ConnectException notListeningYet) {
+                    // tomcat not started yet
+                }
+                Thread.sleep(5);
+            }
+            return fail(run + " not answering after " + STARTUP_TIMEOUT);
+        } finally {
+            stop(process);
+        }
+    }
+
+    // training run: the context is refreshed (beans created, schema validated) and the JVM exits, classes loaded so far go to the archive
+    private Path train(Path extracted, String archiveName, List<String> options) throws Exception {
+        Path archive = WORK_DIR.resolve(archiveName).toAbsolutePath();
+        Files.deleteIfExists(archive);
+        List<String> args = new ArrayList<>(List.of(java, "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh"));
+        args.addAll(options);
+        args.addAll(List.of("-jar", extracted.toString()));
+        run(args, "training-" + archiveName);
+        assertTrue(Files.exists(archive), "no CDS archive written, see " + WORK_DIR.resolve("training-" + archiveName + ".log"));
+        return archive;
+    }
+
+    // CDS needs the classpath as plain jars (not nested in the fat jar) -> application jar + lib/
+    private Path extract(Path jar) throws Exception {
+        Path destination = WORK_DIR.resolve("extracted").toAbsolutePath();
+        run(List.of(java, "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", destination.toString(), "--force"),
+                "extract");
+        return destination.resolve(jar.getFileName());
+    }
+
+    private void run(List<String> args, String name) throws Exception {
+        Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK_DIR.resolve(name + ".log").toFile())
+                .start();
+        if (!process.waitFor(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+            stop(process);
+            fail(name + " failed, see " + WORK_DIR.resolve(name + ".log"));
+        }
+    }
+
+    // SIGTERM -> graceful shutdown, the next run must not find the port or pool connections still taken
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static Path applicationJar() throws IOException {
+        String configured = System.getProperty("hospital.startup-benchmark.jar");
+        if (configured != null) {
+            return Paths.get(configured).toAbsolutePath();
+        }
+        try (Stream<Path> files = Files.list(Paths.get("target"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .map(Path::toAbsolutePath)
+                    .orElseThrow(() -> new IllegalStateException("no jar in target/, run ./mvnw -Paot -DskipTests package first"));
+        }
+    }
+
+    private static boolean isAotProcessed(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.stream().anyMatch(entry -> entry.getName().endsWith("__ApplicationContextInitializer.class"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dhami.hospital.management.System.support;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+test classpath only -> picked up by component scan in every @SpringBootTest context
+the first context of a test run cleans the test database (config/application.properties) before migrating,
+later contexts (other properties, same JVM) only migrate -> they do not wipe rows under an already cached context
+ */
+@Component
+public class CleanTestDatabaseStrategy implements FlywayMigrationStrategy {
+
+    private static final AtomicBoolean CLEANED = new AtomicBoolean();
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (CLEANED.compareAndSet(false, true)) {
+            flyway.clean();
+        }
+        flyway.migrate();
+    }
+}
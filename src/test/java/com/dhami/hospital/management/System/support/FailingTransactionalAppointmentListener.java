@@ -0,0 +1,39 @@
+package com.dhami.hospital.management.System.support;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.service.AppointmentEventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+test classpath only -> picked up by component scan in every @SpringBootTest context
+a consumer like billing: @Transactional, joins the transaction it is called in and throws for the patients it is told to
+runs before RecordingAppointmentListener, so an event it refuses is not recorded
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FailingTransactionalAppointmentListener implements AppointmentEventListener {
+
+    private final Set<Long> failingPatients = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Transactional
+    public void onAppointmentEvent(long eventId, AppointmentEvent event) {
+        if (failingPatients.contains(event.patientId())) {
+            throw new IllegalStateException("billing down for patient " + event.patientId());
+        }
+    }
+
+    public void failFor(Long patientId) {
+        failingPatients.add(patientId);
+    }
+
+    public void recover(Long patientId) {
+        failingPatients.remove(patientId);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dhami.hospital.management.System.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+sql statement budget for a test
+@MaxQueries(1) -> the test fails when it runs more than 1 statement (N+1 / lazy load loop)
+on a class it applies to every test method that has no own @MaxQueries
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface MaxQueries {
+
+    int value();
+}
@@ -0,0 +1,50 @@
+package com.dhami.hospital.management.System.support;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+import java.util.Optional;
+
+// arms QueryCounter on the test thread for the tests with a budget, disarms it afterwards
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (budget(context).isPresent()) {
+            QueryCounter.reset();
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Optional<MaxQueries> budget = budget(context);
+        if (budget.isEmpty()) {
+            return;
+        }
+
+        int count = QueryCounter.count();
+        List<String> statements = QueryCounter.statements();
+        QueryCounter.stop();
+        if (count > budget.get().value()) {
+            StringBuilder message = new StringBuilder()
+                    .append("Expected at most ").append(budget.get().value())
+                    .append(" SQL statements but ").append(count).append(" were executed:");
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+            }
+            if (count > statements.size()) {
+                message.append(System.lineSeparator()).append("... ").append(count - statements.size()).append(" more");
+            }
+            throw new AssertionFailedError(message.toString(), budget.get().value(), count);
+        }
+    }
+
+    private static Optional<MaxQueries> budget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxQueries.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxQueries.class));
+    }
+}
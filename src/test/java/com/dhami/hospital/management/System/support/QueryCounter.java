@@ -0,0 +1,59 @@
+package com.dhami.hospital.management.System.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+counts the sql statements hibernate prepares on the current thread
+(plugged in through QueryCountingHibernateCustomizer, read by QueryBudgetExtension)
+-> only while armed: reset() arms the calling thread, stop() disarms it
+   the relay / scheduler threads and everything outside a measurement are never recorded
+-> every statement is counted, only the first MAX_RECORDED are kept for the failure message
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final int MAX_RECORDED = 1_000;
+    private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = RECORDING.get();
+        if (recording != null) {
+            recording.add(sql);
+        }
+        return sql;
+    }
+
+    // starts counting on this thread from zero
+    public static void reset() {
+        RECORDING.set(new Recording());
+    }
+
+    public static void stop() {
+        RECORDING.remove();
+    }
+
+    public static int count() {
+        Recording recording = RECORDING.get();
+        return recording == null ? 0 : recording.count;
+    }
+
+    public static List<String> statements() {
+        Recording recording = RECORDING.get();
+        return recording == null ? List.of() : List.copyOf(recording.statements);
+    }
+
+    private static final class Recording {
+
+        private final List<String> statements = new ArrayList<>();
+        private int count;
+
+        void add(String sql) {
+            if (count++ < MAX_RECORDED) {
+                statements.add(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.dhami.hospital.management.System.support;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// test classpath only -> picked up by component scan in every @SpringBootTest context
+@Component
+public class QueryCountingHibernateCustomizer implements HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+}
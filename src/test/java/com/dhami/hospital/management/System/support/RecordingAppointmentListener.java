@@ -0,0 +1,59 @@
+package com.dhami.hospital.management.System.support;
+
+import com.dhami.hospital.management.System.dto.AppointmentEvent;
+import com.dhami.hospital.management.System.service.AppointmentEventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/*
+test classpath only -> picked up by component scan in every @SpringBootTest context
+records what OutboxRelay delivered, can hold deliveries back (slow consumer) or fail them (broken consumer)
+ */
+@Component
+public class RecordingAppointmentListener implements AppointmentEventListener {
+
+    private final List<AppointmentEvent> delivered = new CopyOnWriteArrayList<>();
+    private final Map<Long, Integer> failuresByPatient = new ConcurrentHashMap<>();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @Override
+    public void onAppointmentEvent(long eventId, AppointmentEvent event) {
+        try {
+            if (!gate.await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("listener was held for too long");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        Integer failures = failuresByPatient.remove(event.patientId());
+        if (failures != null && failures > 0) {
+            failuresByPatient.put(event.patientId(), failures - 1);
+            throw new IllegalStateException("consumer down for patient " + event.patientId());
+        }
+        delivered.add(event);
+    }
+
+    public List<AppointmentEvent> deliveredFor(Long patientId) {
+        return delivered.stream().filter(event -> event.patientId().equals(patientId)).toList();
+    }
+
+    // the next 'times' deliveries of this patient's events throw
+    public void failNext(Long patientId, int times) {
+        failuresByPatient.put(patientId, times);
+    }
+
+    public void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    public void release() {
+        gate.countDown();
+    }
+}
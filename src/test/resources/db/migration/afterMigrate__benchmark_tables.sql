@@ -0,0 +1,18 @@
+-- test classpath only: tables of the benchmark entities (benchmark.IdentityKeyedRow / SequenceKeyedRow)
+-- a flyway callback, not a migration -> runs after every migrate, never lands in flyway_schema_history
+-- only ever runs against the test database (config/application.properties), cleaned at the start of each test run
+CREATE SEQUENCE IF NOT EXISTS bench_sequence_row_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS bench_sequence_row (
+    id               BIGINT NOT NULL,
+    appointment_time TIMESTAMP(6),
+    reason           VARCHAR(500),
+    CONSTRAINT bench_sequence_row_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS bench_identity_row (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    appointment_time TIMESTAMP(6),
+    reason           VARCHAR(500),
+    CONSTRAINT bench_identity_row_pkey PRIMARY KEY (id)
+);